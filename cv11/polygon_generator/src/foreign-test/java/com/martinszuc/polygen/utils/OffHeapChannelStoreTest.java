@@ -0,0 +1,84 @@
+package com.martinszuc.polygen.utils;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a target copied into native memory samples and scores exactly like the heap copy.
+ */
+public class OffHeapChannelStoreTest {
+    private static final int WIDTH = 97;
+    private static final int HEIGHT = 61;
+
+    private final SplittableRandom random = new SplittableRandom(17);
+
+    /**
+     * Compares the squared error of random rows and runs, including short ones that only reach
+     * the scalar tail of a vector kernel, and of the whole image.
+     */
+    @Test
+    public void squaredErrorMatchesHeap() {
+        TargetImage heap = randomTarget();
+        try (TargetImage offHeap = heap.toOffHeap()) {
+            assertTrue(offHeap.isOffHeap());
+            int size = WIDTH * HEIGHT;
+            int[] pixels = randomPixels(size);
+
+            assertEquals(heap.squaredError(pixels, 0, 0, size), offHeap.squaredError(pixels, 0, 0, size));
+            for (int trial = 0; trial < 500; trial++) {
+                int targetOffset = random.nextInt(size);
+                int length = random.nextInt(size - targetOffset + 1);
+                int pixelOffset = random.nextInt(size - length + 1);
+                assertEquals("offset " + targetOffset + ", length " + length,
+                        heap.squaredError(pixels, pixelOffset, targetOffset, length),
+                        offHeap.squaredError(pixels, pixelOffset, targetOffset, length));
+            }
+        }
+    }
+
+    /**
+     * Compares every channel copied back from native memory, and the checksum computed from them.
+     */
+    @Test
+    public void channelsMatchHeap() {
+        TargetImage heap = randomTarget();
+        try (TargetImage offHeap = heap.toOffHeap()) {
+            byte[] expected = new byte[WIDTH * HEIGHT];
+            byte[] actual = new byte[WIDTH * HEIGHT];
+            for (int channel = ChannelStore.RED; channel <= ChannelStore.BLUE; channel++) {
+                heap.copyChannel(channel, expected);
+                offHeap.copyChannel(channel, actual);
+                assertArrayEquals("channel " + channel, expected, actual);
+            }
+            assertEquals(heap.checksum(), offHeap.checksum());
+        }
+    }
+
+    /**
+     * Creates a target of random colors.
+     *
+     * @return The target image, stored on the heap.
+     */
+    private TargetImage randomTarget() {
+        return new TargetImage(WIDTH, HEIGHT, randomPixels(WIDTH * HEIGHT));
+    }
+
+    /**
+     * Creates random opaque ARGB pixels.
+     *
+     * @param length Number of pixels.
+     * @return Random pixels.
+     */
+    private int[] randomPixels(int length) {
+        int[] pixels = new int[length];
+        for (int i = 0; i < length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(1 << 24);
+        }
+        return pixels;
+    }
+}
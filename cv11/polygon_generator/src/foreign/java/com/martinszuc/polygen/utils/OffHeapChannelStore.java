@@ -0,0 +1,63 @@
+package com.martinszuc.polygen.utils;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Channels kept in native memory on the incubating Foreign Memory API, so very large targets add
+ * nothing to the heap. Samples are scored straight from native memory by the {@link PixelKernels},
+ * through byte buffer views of the segments. Loaded reflectively by {@link ChannelStore}; only compiled with the Maven profile {@code foreign}.
+ */
+final class OffHeapChannelStore extends ChannelStore {
+    private final ResourceScope scope = ResourceScope.newSharedScope();
+    private final MemorySegment[] channels = new MemorySegment[3];
+    private final ByteBuffer[] views = new ByteBuffer[3]; // Buffers over the segments, read by the kernels
+
+    /**
+     * Copies channels into newly allocated native memory.
+     *
+     * @param source The channels to copy.
+     * @param size   Number of pixels.
+     */
+    OffHeapChannelStore(ChannelStore source, int size) {
+        byte[] samples = new byte[size];
+        for (int channel = RED; channel <= BLUE; channel++) {
+            source.copyChannel(channel, samples);
+            MemorySegment segment = MemorySegment.allocateNative(size, scope);
+            segment.copyFrom(MemorySegment.ofArray(samples));
+            channels[channel] = segment;
+            views[channel] = segment.asByteBuffer();
+        }
+    }
+
+    @Override
+    int sample(int channel, int index) {
+        return MemoryAccess.getByteAtOffset(channels[channel], index) & 0xFF;
+    }
+
+    @Override
+    void copyChannel(int channel, byte[] destination) {
+        MemorySegment.ofArray(destination).copyFrom(channels[channel]);
+    }
+
+    @Override
+    long squaredError(int[] pixels, int pixelOffset, int targetOffset, int length) {
+        return PixelKernels.INSTANCE.squaredError(views[RED], views[GREEN], views[BLUE], targetOffset,
+                pixels, pixelOffset, length);
+    }
+
+    @Override
+    boolean isOffHeap() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (scope.isAlive()) {
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.BenchmarkImages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the breeding operators and of whole generations.
+ * The {@code nextGeneration} score is generations per second.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar GeneticAlgorithmBenchmark -prof gc} to include allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneticAlgorithmBenchmark {
+    @Param({"256", "1024"})
+    private int imageSize;
+
+    @Param({"50"})
+    private int numPolygons;
+
+    @Param({"100", "500"})
+    private int populationSize;
+
+    private GeneticAlgorithm ga;
+    private Individual parent1;
+    private Individual parent2;
+    private Individual mutant;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BufferedImage target = BenchmarkImages.syntheticTarget(imageSize);
+        ga = new GeneticAlgorithm(target, populationSize, numPolygons, 0.1,
+                Runtime.getRuntime().availableProcessors(), "png");
+        ga.setSaveIntermediateImages(false);
+        // Every trial breeds the same populations, whatever the core count
+        ga.setSeed(BenchmarkImages.SEED);
+        random = new SplittableRandom(BenchmarkImages.SEED);
+        parent1 = new Individual(numPolygons, imageSize, imageSize, random);
+        parent2 = new Individual(numPolygons, imageSize, imageSize, random);
+        mutant = parent1.copy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ga.shutdownExecutors();
+    }
+
+    @Benchmark
+    public Individual copy() {
+        return parent1.copy();
+    }
+
+    @Benchmark
+    public Individual mutate() {
+        mutant.mutate(imageSize, imageSize, random);
+        return mutant;
+    }
+
+    @Benchmark
+    public List<Individual> crossover() {
+        return ga.crossover(parent1, parent2);
+    }
+
+    @Benchmark
+    public void nextGeneration() {
+        ga.nextGeneration();
+    }
+}
@@ -0,0 +1,51 @@
+package com.martinszuc.polygen.utils;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic targets for benchmarks, so results do not depend on input files.
+ */
+public final class BenchmarkImages {
+    /**
+     * Seed of every random input of the benchmarks, so compared runs work on the same data.
+     */
+    public static final long SEED = 42;
+
+    private BenchmarkImages() {
+    }
+
+    /**
+     * Creates a square target with smooth gradients and random rectangles.
+     *
+     * @param size Width and height of the image.
+     * @return The generated image.
+     */
+    public static BufferedImage syntheticTarget(int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ImageUtils.packedPixels(image);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int r = x * 255 / size;
+                int g = y * 255 / size;
+                int b = (x + y) * 127 / size;
+                pixels[y * size + x] = (r << 16) | (g << 8) | b;
+            }
+        }
+
+        Random rand = new Random(SEED);
+        for (int i = 0; i < 20; i++) {
+            int x0 = rand.nextInt(size);
+            int y0 = rand.nextInt(size);
+            int x1 = Math.min(size, x0 + rand.nextInt(size / 4 + 1));
+            int y1 = Math.min(size, y0 + rand.nextInt(size / 4 + 1));
+            int rgb = rand.nextInt(0x1000000);
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    pixels[y * size + x] = rgb;
+                }
+            }
+        }
+        return image;
+    }
+}
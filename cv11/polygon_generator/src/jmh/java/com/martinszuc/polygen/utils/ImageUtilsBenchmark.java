@@ -0,0 +1,65 @@
+package com.martinszuc.polygen.utils;
+
+import com.martinszuc.polygen.ga.Individual;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of rendering and scoring a single individual.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar ImageUtilsBenchmark -prof gc} to include allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageUtilsBenchmark {
+    @Param({"256", "1024"})
+    private int imageSize;
+
+    @Param({"50", "200"})
+    private int numPolygons;
+
+    private BufferedImage target;
+    private TargetImage unpackedTarget;
+    private Individual individual;
+    private BufferedImage rendered;
+
+    @Setup
+    public void setUp() {
+        target = BenchmarkImages.syntheticTarget(imageSize);
+        unpackedTarget = new TargetImage(target);
+        individual = new Individual(numPolygons, imageSize, imageSize, new SplittableRandom(BenchmarkImages.SEED));
+        rendered = ImageUtils.renderImage(individual, imageSize, imageSize);
+    }
+
+    @Benchmark
+    public BufferedImage renderImage() {
+        return ImageUtils.renderImage(individual, imageSize, imageSize);
+    }
+
+    @Benchmark
+    public double calculateMSE() {
+        return ImageUtils.calculateMSE(target, rendered);
+    }
+
+    @Benchmark
+    public double calculateMSEUnpackedTarget() {
+        return ImageUtils.calculateMSE(unpackedTarget, rendered);
+    }
+}
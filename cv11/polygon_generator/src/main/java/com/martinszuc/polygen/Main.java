@@ -1,10 +1,23 @@
 package com.martinszuc.polygen;
 
+import com.martinszuc.polygen.batch.BatchJob;
+import com.martinszuc.polygen.batch.BatchRunner;
 import com.martinszuc.polygen.ga.GeneticAlgorithm;
+import com.martinszuc.polygen.ga.GenomeRecord;
 import com.martinszuc.polygen.ga.Individual;
+import com.martinszuc.polygen.ga.TerminationPolicy;
 import com.martinszuc.polygen.utils.ImageUtils;
+import com.martinszuc.polygen.utils.RawPixelCache;
+import com.martinszuc.polygen.utils.TargetImage;
 
 import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -17,17 +30,23 @@ public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
     public static void main(String[] args) {
+        if (args.length >= 3 && args[0].equals("batch")) {
+            runBatch(args);
+            return;
+        }
+        if (args.length >= 3 && args[0].equals("render")) {
+            renderRecord(args);
+            return;
+        }
+
         try {
             // Hardcoded paths and formats
             String targetImagePath = "src/main/resources/input/target_image.jpg"; // Change to your actual path
             String outputFormat = "png"; // Set to "png" or "jpg"
+            String checkpointPath = "output/checkpoint.bin";
 
-            // Load the target image
-            BufferedImage targetImage = ImageUtils.loadImage(targetImagePath);
-            if (targetImage == null) {
-                logger.severe("Failed to load the target image.");
-                return;
-            }
+            // Load the target image, decoding it only if its raw pixel cache is missing or stale
+            TargetImage targetImage = RawPixelCache.load(targetImagePath);
 
             // Genetic algorithm parameters
             int populationSize = 100;   // Number of individuals in each generation
@@ -48,10 +67,38 @@ public class Main {
                     outputFormat
             );
 
+            // Stop once another 500 generations would improve the best fitness by less than 0.1%
+            TerminationPolicy terminationPolicy = new TerminationPolicy();
+            terminationPolicy.setPlateau(500, 0.001);
+            ga.setTerminationPolicy(terminationPolicy);
+
+            // Checkpoint regularly and continue from the last checkpoint of an interrupted run
+            new File(checkpointPath).getParentFile().mkdirs();
+            if (new File(checkpointPath).isFile()) {
+                try {
+                    ga.resumeFrom(checkpointPath);
+                } catch (IOException e) {
+                    logger.warning("Starting from scratch, the checkpoint cannot be used: " + e.getMessage());
+                }
+            }
+            ga.setCheckpointing(checkpointPath, 50);
+
+            // Run the evolution process in a separate thread
+            Thread evolutionThread = new Thread(() -> {
+                logger.info("Evolution started. Press Ctrl+C to stop and save the best result.");
+                ga.evolve(1000000); // Set a very high number to run indefinitely
+            });
+
             // Add shutdown hook to save the best individual upon termination
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("\nShutting down...");
                 ga.stop();
+                try {
+                    // Let the current generation finish so its checkpoint is written
+                    evolutionThread.join(20_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
                 ga.shutdownExecutors();
 
                 Individual best = ga.getBestIndividual();
@@ -65,24 +112,127 @@ public class Main {
                 }
             }));
 
-            // Start the evolution process in a separate thread
-            Thread evolutionThread = new Thread(() -> {
-                logger.info("Evolution started. Press Ctrl+C to stop and save the best result.");
-                ga.evolve(1000000); // Set a very high number to run indefinitely
-            });
             evolutionThread.start();
 
-            // Keep the main thread alive until the user interrupts
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("Press Enter to stop the evolution and save the best result.");
-            scanner.nextLine(); // Wait for user input (e.g., pressing Enter)
-            ga.stop();
+            // Let the user stop early (e.g., by pressing Enter)
+            Thread inputThread = new Thread(() -> {
+                Scanner scanner = new Scanner(System.in);
+                System.out.println("Press Enter to stop the evolution and save the best result.");
+                if (scanner.hasNextLine()) {
+                    scanner.nextLine();
+                    ga.stop();
+                }
+            });
+            inputThread.setDaemon(true);
+            inputThread.start();
 
-            // Wait for the evolution thread to finish
+            // Wait for the evolution thread to finish, either stopped or ended by the termination policy
             evolutionThread.join();
 
         } catch (Exception e) {
             logger.log(Level.SEVERE, "An error occurred during execution.", e);
         }
     }
+
+    /**
+     * Batch mode: {@code batch <inputDir> <outputDir> [maxGenerations] [maxSecondsPerJob]}.
+     * Evolves every image in the input directory on one shared worker pool and saves each
+     * result under the same name in the output directory. A job also ends early once its
+     * fitness stops improving.
+     *
+     * @param args Command line arguments, starting with "batch".
+     */
+    private static void runBatch(String[] args) {
+        String outputFormat = "png";
+        int maxGenerations = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        long maxMillis = args.length > 4 ? Long.parseLong(args[4]) * 1000 : 60_000;
+        int availableProcessors = Runtime.getRuntime().availableProcessors();
+
+        File[] images = new File(args[1]).listFiles((dir, name) -> name.toLowerCase().matches(".*\\.(jpe?g|png|bmp|gif)"));
+        if (images == null) {
+            logger.severe("Input directory not found: " + args[1]);
+            return;
+        }
+        Arrays.sort(images);
+
+        // Keep a few jobs per core in rotation so small targets are not queued behind large ones
+        BatchRunner runner = new BatchRunner(availableProcessors, 4 * availableProcessors, 250,
+                100, 50, 0.1, outputFormat);
+        for (File image : images) {
+            String name = image.getName().replaceFirst("\\.[^.]+$", "");
+            String outputPath = new File(args[2], name + "." + outputFormat).getPath();
+            TerminationPolicy terminationPolicy = new TerminationPolicy();
+            terminationPolicy.setGenerationLimit(maxGenerations);
+            terminationPolicy.setTimeBudget(maxMillis);
+            terminationPolicy.setPlateau(200, 0.001);
+            runner.submit(new BatchJob(image.getPath(), outputPath, terminationPolicy));
+        }
+
+        // On Ctrl+C let the active jobs save their results before the JVM exits
+        Thread batchThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            runner.stop();
+            try {
+                batchThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            logger.info("Batch of " + images.length + " images started.");
+            runner.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.severe("Batch was interrupted.");
+        } finally {
+            runner.shutdown();
+        }
+    }
+
+    /**
+     * Render mode: {@code render <records.jsonl> <outputImage> [generation] [width]}.
+     * Renders one genome record written with {@code IntermediateOutput.JSON_LINES} to a bitmap:
+     * the last record of the given generation or earlier, or the last record in the file.
+     * The image format follows the output file's extension.
+     *
+     * @param args Command line arguments, starting with "render".
+     */
+    private static void renderRecord(String[] args) {
+        int generation = args.length > 3 ? Integer.parseInt(args[3]) : Integer.MAX_VALUE;
+        GenomeRecord record = null;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                GenomeRecord candidate = GenomeRecord.fromJson(line);
+                if (candidate.getGeneration() <= generation) {
+                    record = candidate;
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Could not read genome records from " + args[1], e);
+            return;
+        }
+        if (record == null) {
+            logger.severe("No record at or before generation " + generation + " in " + args[1]);
+            return;
+        }
+
+        // Optionally render at another size; the polygons scale with it
+        int width = args.length > 4 ? Integer.parseInt(args[4]) : record.getWidth();
+        double scale = (double) width / record.getWidth();
+        int height = (int) Math.round(record.getHeight() * scale);
+        Individual individual = record.getIndividual();
+        if (width != record.getWidth()) {
+            individual = individual.copy();
+            individual.scale(scale, scale);
+        }
+
+        String format = args[2].substring(args[2].lastIndexOf('.') + 1).toLowerCase();
+        BufferedImage image = ImageUtils.renderImage(individual, width, height);
+        ImageUtils.saveImage(image, args[2], format);
+        logger.info("Rendered generation " + record.getGeneration() + " (fitness " + record.getFitness() + ") to " + args[2]);
+    }
 }
@@ -0,0 +1,84 @@
+package com.martinszuc.polygen.batch;
+
+import com.martinszuc.polygen.ga.GeneticAlgorithm;
+import com.martinszuc.polygen.ga.TerminationPolicy;
+
+/**
+ * One target image of a batch together with its own stopping criteria.
+ */
+public class BatchJob {
+    private final String targetPath;
+    private final String outputPath;
+    private final TerminationPolicy terminationPolicy;
+
+    // Scheduler state, only touched by the driver currently running the job
+    private GeneticAlgorithm algorithm;
+
+    /**
+     * Creates a job.
+     *
+     * @param targetPath        The file path to the image to approximate.
+     * @param outputPath        Where the final image is saved.
+     * @param terminationPolicy When the job stops; its time budget only counts time the job was scheduled.
+     *                          It should set a generation or time limit, since jobs run until it ends them.
+     */
+    public BatchJob(String targetPath, String outputPath, TerminationPolicy terminationPolicy) {
+        this.targetPath = targetPath;
+        this.outputPath = outputPath;
+        this.terminationPolicy = terminationPolicy;
+    }
+
+    /**
+     * Gets the path of the image to approximate.
+     *
+     * @return The target path.
+     */
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    /**
+     * Gets the path the final image is saved to.
+     *
+     * @return The output path.
+     */
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    /**
+     * Gets the criteria that end the job.
+     *
+     * @return The job's own termination policy.
+     */
+    TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Checks whether the job's termination policy ended its run.
+     *
+     * @return True if the job should not be given another slice.
+     */
+    boolean isDone() {
+        return algorithm.getTerminationReason() != null;
+    }
+
+    /**
+     * Gets the running algorithm.
+     *
+     * @return The algorithm, or null before the first slice and after the job finished.
+     */
+    GeneticAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Sets the running algorithm.
+     *
+     * @param algorithm The algorithm, or null once the job finished.
+     */
+    void setAlgorithm(GeneticAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+}
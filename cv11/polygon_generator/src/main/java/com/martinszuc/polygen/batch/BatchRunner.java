@@ -0,0 +1,249 @@
+package com.martinszuc.polygen.batch;
+
+import com.martinszuc.polygen.ga.GeneticAlgorithm;
+import com.martinszuc.polygen.ga.Individual;
+import com.martinszuc.polygen.utils.ImageUtils;
+import com.martinszuc.polygen.utils.RawPixelCache;
+import com.martinszuc.polygen.utils.TargetImage;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Evolves many targets in one JVM on a single shared work-stealing pool. A bounded number of jobs
+ * is active at a time, and the active jobs take turns in time slices: a driver thread runs
+ * generations of one job until its slice is used up, then puts the job at the back of the queue.
+ * A large target therefore never holds a driver for more than one slice, and small targets keep
+ * getting their turns.
+ */
+public class BatchRunner {
+    private static final Logger logger = Logger.getLogger(BatchRunner.class.getName());
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int maxActiveJobs;
+    private final long sliceNanos;
+    private final int populationSize;
+    private final int numPolygons;
+    private final double mutationRate;
+    private final String outputFormat;
+    private Consumer<GeneticAlgorithm> configurer = algorithm -> { };
+
+    private final Deque<BatchJob> pending = new ArrayDeque<>(); // Not started yet
+    private final Deque<BatchJob> ready = new ArrayDeque<>();   // Started and waiting for their next slice
+    private int activeJobs;                                     // Started and not finished
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    /**
+     * Creates a runner with its own work-stealing pool.
+     *
+     * @param parallelism    Number of pool threads.
+     * @param maxActiveJobs  Number of jobs held in memory and rotated at once.
+     * @param sliceMillis    Time a job may run before the next job gets its turn.
+     * @param populationSize Number of individuals in each job's population.
+     * @param numPolygons    Number of polygons per individual.
+     * @param mutationRate   Mutation probability.
+     * @param outputFormat   Output image format (e.g., "png", "jpg").
+     */
+    public BatchRunner(int parallelism, int maxActiveJobs, long sliceMillis, int populationSize, int numPolygons,
+                       double mutationRate, String outputFormat) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.parallelism = parallelism;
+        this.maxActiveJobs = maxActiveJobs;
+        this.sliceNanos = sliceMillis * 1_000_000L;
+        this.populationSize = populationSize;
+        this.numPolygons = numPolygons;
+        this.mutationRate = mutationRate;
+        this.outputFormat = outputFormat;
+    }
+
+    /**
+     * Sets a callback that configures every job's algorithm before its first generation,
+     * e.g. to pick an evaluation mode. Intermediate images are disabled before it runs.
+     *
+     * @param configurer Called once per job.
+     */
+    public void setConfigurer(Consumer<GeneticAlgorithm> configurer) {
+        this.configurer = configurer;
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param job The job to run.
+     */
+    public synchronized void submit(BatchJob job) {
+        pending.addLast(job);
+        notifyAll();
+    }
+
+    /**
+     * Runs all queued jobs and returns once every one of them finished or the runner was stopped.
+     * Finished jobs save their best individual to their output path.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public void run() throws InterruptedException {
+        // Drivers mostly wait for their job's generation tasks, which run on the pool
+        List<Thread> drivers = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, maxActiveJobs); i++) {
+            Thread driver = new Thread(this::drive, "batch-driver-" + i);
+            drivers.add(driver);
+            driver.start();
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+    }
+
+    /**
+     * Stops handing out slices; jobs in the middle of a slice finish it and save their result.
+     */
+    public void stop() {
+        running.set(false);
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Shuts down the shared pool. Call after {@link #run()} returned.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Driver loop: takes the next job, runs one slice of it and requeues or finishes it.
+     */
+    private void drive() {
+        BatchJob job;
+        while ((job = nextJob()) != null) {
+            try {
+                if (job.getAlgorithm() == null) {
+                    start(job);
+                }
+                runSlice(job);
+                if (job.isDone() || !running.get()) {
+                    finish(job);
+                } else {
+                    requeue(job);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.SEVERE, "Batch job " + job.getTargetPath() + " failed.", e);
+                if (job.getAlgorithm() != null) {
+                    job.getAlgorithm().shutdownExecutors();
+                }
+                abandon(job);
+            }
+        }
+    }
+
+    /**
+     * Waits for the next job that should get a slice. New jobs are started until {@code maxActiveJobs}
+     * are active, after which the active jobs take turns.
+     *
+     * @return The job, or null once there is nothing left to run.
+     */
+    private synchronized BatchJob nextJob() {
+        while (running.get()) {
+            if (activeJobs < maxActiveJobs && !pending.isEmpty()) {
+                activeJobs++;
+                return pending.pollFirst();
+            }
+            if (!ready.isEmpty()) {
+                return ready.pollFirst();
+            }
+            if (activeJobs == 0) {
+                return null;
+            }
+            // Another driver holds an active job and will requeue or finish it
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        // When stopping, active jobs still get one last turn so they save their result
+        return ready.pollFirst();
+    }
+
+    /**
+     * Loads a job's target and creates its algorithm on the shared pool.
+     *
+     * @param job The job to start.
+     * @throws IOException If the target cannot be loaded.
+     */
+    private void start(BatchJob job) throws IOException {
+        TargetImage target = RawPixelCache.load(job.getTargetPath());
+        GeneticAlgorithm algorithm = new GeneticAlgorithm(target, populationSize, numPolygons, mutationRate,
+                pool, parallelism, outputFormat);
+        algorithm.setSaveIntermediateImages(false);
+        algorithm.setTerminationPolicy(job.getTerminationPolicy());
+        configurer.accept(algorithm);
+        job.setAlgorithm(algorithm);
+        logger.info("Started batch job " + job.getTargetPath());
+    }
+
+    /**
+     * Runs generations of one job until its slice is used up or it is done.
+     *
+     * @param job The job to run.
+     */
+    private void runSlice(BatchJob job) {
+        long start = System.nanoTime();
+        do {
+            job.getAlgorithm().advance(1);
+        } while (System.nanoTime() - start < sliceNanos && running.get() && !job.isDone());
+    }
+
+    /**
+     * Puts a job at the back of the queue for its next slice.
+     *
+     * @param job The job to requeue.
+     */
+    private synchronized void requeue(BatchJob job) {
+        ready.addLast(job);
+        notifyAll();
+    }
+
+    /**
+     * Saves a finished job's best individual and releases its algorithm.
+     *
+     * @param job The finished job.
+     */
+    private void finish(BatchJob job) {
+        GeneticAlgorithm algorithm = job.getAlgorithm();
+        algorithm.stop();
+        Individual best = algorithm.getBestIndividual();
+        algorithm.shutdownExecutors();
+        if (best != null) {
+            BufferedImage image = ImageUtils.renderImage(best, algorithm.getOutputWidth(), algorithm.getOutputHeight());
+            ImageUtils.saveImage(image, job.getOutputPath(), outputFormat);
+        }
+        logger.info("Finished batch job " + job.getTargetPath() + " (" + algorithm.getTerminationReason() + ") after "
+                + algorithm.getGenerationCount() + " generations, best fitness: " + (best != null ? best.getFitness() : "none"));
+        abandon(job);
+    }
+
+    /**
+     * Drops a job from the active set, letting a pending job start.
+     *
+     * @param job The job to drop.
+     */
+    private synchronized void abandon(BatchJob job) {
+        job.setAlgorithm(null);
+        activeJobs--;
+        notifyAll();
+    }
+}
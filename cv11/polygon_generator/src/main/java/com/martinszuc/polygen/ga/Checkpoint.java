@@ -0,0 +1,176 @@
+package com.martinszuc.polygen.ga;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot of everything a run needs to continue exactly where it stopped: the population, the
+ * best individual, the run seed and the generation and convergence counters.
+ * Instances are reusable buffers, so the evolution thread can fill one while another is written.
+ * <p>
+ * File layout, big-endian: magic, version, population size, polygon count, target checksum,
+ * configuration (modified UTF-8), then the remaining scalar fields in declaration order, the individuals and the best individual, and finally the CRC-32C of
+ * everything before it. An individual is its fitness, a validity flag and, per polygon, the vertex
+ * count, the vertices and the ARGB color.
+ */
+final class Checkpoint {
+    private static final int MAGIC = 0x5047434B; // "PGCK"
+    private static final int VERSION = 4;
+
+    final int populationSize;
+    final int numPolygons;
+    final PopulationStore population;
+    final boolean[] fitnessValid;
+    final PopulationStore best; // A single slot, meaningful only if hasBest is set
+    boolean hasBest;
+
+    long targetChecksum;            // CRC-32C of the full-resolution target the run approximates
+    String configuration = "";      // Settings that shape the run, as described by the algorithm
+    int outputWidth;
+    int outputHeight;
+    int level;
+    int levelWidth;
+    int levelHeight;
+    int generationCount;
+    long seed;                      // Run seed every generation's generators are derived from
+    boolean populationScored;
+    int plateauCheckGeneration;
+    double plateauCheckFitness;
+    int policyWindowGeneration;
+    double policyWindowFitness;
+    long evaluations;
+    long runNanos;
+
+    /**
+     * Creates an empty snapshot buffer.
+     *
+     * @param populationSize Number of individuals.
+     * @param numPolygons    Number of polygons per individual.
+     */
+    Checkpoint(int populationSize, int numPolygons) {
+        this.populationSize = populationSize;
+        this.numPolygons = numPolygons;
+        this.population = new PopulationStore(populationSize, numPolygons);
+        this.fitnessValid = new boolean[populationSize];
+        this.best = new PopulationStore(1, numPolygons);
+    }
+
+    /**
+     * Writes the snapshot through a temporary file that is synced and then moved over the
+     * previous checkpoint, so a crash at any point leaves one complete checkpoint behind.
+     *
+     * @param path The checkpoint file.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, 1 << 16);
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(populationSize);
+            out.writeInt(numPolygons);
+            out.writeLong(targetChecksum);
+            out.writeUTF(configuration);
+            out.writeInt(outputWidth);
+            out.writeInt(outputHeight);
+            out.writeInt(level);
+            out.writeInt(levelWidth);
+            out.writeInt(levelHeight);
+            out.writeInt(generationCount);
+            out.writeLong(seed);
+            out.writeBoolean(populationScored);
+            out.writeInt(plateauCheckGeneration);
+            out.writeDouble(plateauCheckFitness);
+            out.writeInt(policyWindowGeneration);
+            out.writeDouble(policyWindowFitness);
+            out.writeLong(evaluations);
+            out.writeLong(runNanos);
+            for (int i = 0; i < populationSize; i++) {
+                out.writeBoolean(fitnessValid[i]);
+                population.write(i, out);
+            }
+            out.writeBoolean(hasBest);
+            if (hasBest) {
+                best.write(0, out);
+            }
+            out.flush();
+
+            new DataOutputStream(buffered).writeLong(crc.getValue());
+            buffered.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @param path The checkpoint file.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be read, is not a checkpoint or is corrupt.
+     */
+    static Checkpoint read(Path path) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            CRC32C crc = new CRC32C();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+            }
+            int populationSize = in.readInt();
+            int numPolygons = in.readInt();
+            if (populationSize <= 0 || numPolygons <= 0) {
+                throw new IOException("Corrupt checkpoint header: " + path);
+            }
+
+            Checkpoint checkpoint = new Checkpoint(populationSize, numPolygons);
+            checkpoint.targetChecksum = in.readLong();
+            checkpoint.configuration = in.readUTF();
+            checkpoint.outputWidth = in.readInt();
+            checkpoint.outputHeight = in.readInt();
+            checkpoint.level = in.readInt();
+            checkpoint.levelWidth = in.readInt();
+            checkpoint.levelHeight = in.readInt();
+            checkpoint.generationCount = in.readInt();
+            checkpoint.seed = in.readLong();
+            checkpoint.populationScored = in.readBoolean();
+            checkpoint.plateauCheckGeneration = in.readInt();
+            checkpoint.plateauCheckFitness = in.readDouble();
+            checkpoint.policyWindowGeneration = in.readInt();
+            checkpoint.policyWindowFitness = in.readDouble();
+            checkpoint.evaluations = in.readLong();
+            checkpoint.runNanos = in.readLong();
+            for (int i = 0; i < populationSize; i++) {
+                checkpoint.fitnessValid[i] = in.readBoolean();
+                checkpoint.population.read(i, in);
+            }
+            checkpoint.hasBest = in.readBoolean();
+            if (checkpoint.hasBest) {
+                checkpoint.best.read(0, in);
+            }
+
+            long expected = crc.getValue();
+            if (new DataInputStream(file).readLong() != expected) {
+                throw new IOException("Checkpoint checksum mismatch: " + path);
+            }
+            return checkpoint;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.martinszuc.polygen.ga;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+
+/**
+ * Writes checkpoints on a background thread from two alternating snapshot buffers. The evolution
+ * thread fills whichever buffer is not being written and hands it over without waiting for the
+ * disk. If it publishes again before the writer got to the previous snapshot, the older snapshot
+ * is dropped in favor of the newer one, so the evolution thread never blocks on a slow disk.
+ */
+final class CheckpointWriter {
+    private static final Logger logger = Logger.getLogger(CheckpointWriter.class.getName());
+
+    private final Path path;
+    private final Checkpoint[] buffers;
+    private final Thread thread;
+    private Checkpoint writing; // Buffer the writer thread currently owns, null if idle
+    private Checkpoint pending; // Buffer published and waiting for the writer, null if none
+    private boolean closed;
+
+    /**
+     * Creates a writer and starts its thread.
+     *
+     * @param path           The checkpoint file.
+     * @param populationSize Number of individuals per snapshot.
+     * @param numPolygons    Number of polygons per individual.
+     */
+    CheckpointWriter(Path path, int populationSize, int numPolygons) {
+        this.path = path;
+        this.buffers = new Checkpoint[]{new Checkpoint(populationSize, numPolygons), new Checkpoint(populationSize, numPolygons)};
+        this.thread = new Thread(this::run, "checkpoint-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gets the buffer to fill with the next snapshot. A published snapshot the writer has not
+     * started on yet is taken back and overwritten.
+     *
+     * @return A buffer the writer thread does not touch until it is published.
+     */
+    synchronized Checkpoint claim() {
+        pending = null;
+        return buffers[0] != writing ? buffers[0] : buffers[1];
+    }
+
+    /**
+     * Hands a filled buffer to the writer thread.
+     *
+     * @param checkpoint The buffer returned by {@link #claim()}.
+     */
+    synchronized void publish(Checkpoint checkpoint) {
+        pending = checkpoint;
+        notifyAll();
+    }
+
+    /**
+     * Writes the last published snapshot, if any, and stops the writer thread.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Moves the checkpoint file aside once its run has finished, so that it is not resumed by
+     * accident. The final state stays available under the file name with {@code .done} appended.
+     * Call after {@link #close()}.
+     */
+    void retire() {
+        Path done = path.resolveSibling(path.getFileName() + ".done");
+        try {
+            if (Files.isRegularFile(path)) {
+                Files.move(path, done, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.info("Run finished, checkpoint moved to " + done);
+            }
+        } catch (IOException e) {
+            logger.warning("Could not move finished checkpoint " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writer loop: waits for a published snapshot and writes it.
+     */
+    private void run() {
+        while (true) {
+            Checkpoint checkpoint;
+            synchronized (this) {
+                while (pending == null && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending == null) {
+                    return;
+                }
+                checkpoint = pending;
+                pending = null;
+                writing = checkpoint;
+            }
+
+            try {
+                checkpoint.write(path);
+                logger.info("Checkpoint of generation " + checkpoint.generationCount + " saved to " + path);
+            } catch (IOException e) {
+                logger.warning("Could not write checkpoint " + path + ": " + e.getMessage());
+            }
+
+            synchronized (this) {
+                writing = null;
+            }
+        }
+    }
+}
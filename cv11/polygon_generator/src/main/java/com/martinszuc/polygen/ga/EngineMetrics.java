@@ -0,0 +1,262 @@
+package com.martinszuc.polygen.ga;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters and histograms of one run, read through {@link GeneticAlgorithm#getMetrics()}.
+ * All times are in nanoseconds. Render and MSE times are only split for the full-render
+ * evaluation mode; the other modes record the whole evaluation only. Values are updated by the
+ * evolution and worker threads while they are read, so a reader sees each value as of some
+ * recent moment rather than one consistent snapshot.
+ */
+public final class EngineMetrics {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Histogram evaluationTime = new Histogram();
+    private final Histogram renderTime = new Histogram();
+    private final Histogram mseTime = new Histogram();
+    private final Histogram breedingTime = new Histogram();
+    private final Histogram generationTime = new Histogram();
+    private final Histogram allocatedPerGeneration = new Histogram();
+    private final LongAdder fitnessCacheHits = new LongAdder();
+    private final LongAdder fitnessCacheMisses = new LongAdder();
+
+    private volatile int generation;
+    private volatile double evaluationsPerSecond;
+    private volatile double bestFitness;
+    private volatile double meanFitness;
+    private volatile double fitnessStdDev;
+
+    /**
+     * Gets the time per computed fitness evaluation, in every evaluation mode.
+     *
+     * @return Evaluation time histogram.
+     */
+    public Histogram getEvaluationTime() {
+        return evaluationTime;
+    }
+
+    /**
+     * Gets the time spent rendering a candidate in the full-render evaluation mode.
+     *
+     * @return Render time histogram.
+     */
+    public Histogram getRenderTime() {
+        return renderTime;
+    }
+
+    /**
+     * Gets the time spent comparing a rendered candidate with the target in the full-render evaluation mode.
+     *
+     * @return MSE time histogram.
+     */
+    public Histogram getMseTime() {
+        return mseTime;
+    }
+
+    /**
+     * Gets the time spent selecting, crossing over and mutating per generation. Only recorded
+     * where breeding is a phase of its own: the generational engine without pipelining.
+     *
+     * @return Breeding time histogram.
+     */
+    public Histogram getBreedingTime() {
+        return breedingTime;
+    }
+
+    /**
+     * Gets the mean duration of a generation, recorded once per generation, island epoch or
+     * steady-state segment.
+     *
+     * @return Generation time histogram.
+     */
+    public Histogram getGenerationTime() {
+        return generationTime;
+    }
+
+    /**
+     * Gets the mean bytes allocated per generation by all threads of the JVM, recorded like the
+     * generation time. Stays empty if the JVM cannot measure allocation.
+     *
+     * @return Allocation histogram.
+     */
+    public Histogram getAllocatedPerGeneration() {
+        return allocatedPerGeneration;
+    }
+
+    /**
+     * Gets the number of fitness cache lookups that found a value. Stays 0 unless the cache is enabled.
+     *
+     * @return Hit count since the run started.
+     */
+    public long getFitnessCacheHits() {
+        return fitnessCacheHits.sum();
+    }
+
+    /**
+     * Gets the number of fitness cache lookups that found nothing, each followed by an evaluation.
+     *
+     * @return Miss count since the run started.
+     */
+    public long getFitnessCacheMisses() {
+        return fitnessCacheMisses.sum();
+    }
+
+    /**
+     * Gets the generation the fitness statistics belong to.
+     *
+     * @return Latest recorded generation.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the evaluation throughput of the latest generation, island epoch or steady-state segment.
+     *
+     * @return Computed evaluations per second.
+     */
+    public double getEvaluationsPerSecond() {
+        return evaluationsPerSecond;
+    }
+
+    /**
+     * Gets the best fitness of the latest scored generation.
+     *
+     * @return Best fitness.
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * Gets the mean fitness of the latest scored generation.
+     *
+     * @return Mean fitness.
+     */
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+
+    /**
+     * Gets the standard deviation of the fitness of the latest scored generation, a measure of
+     * how much diversity is left in the population.
+     *
+     * @return Fitness standard deviation.
+     */
+    public double getFitnessStdDev() {
+        return fitnessStdDev;
+    }
+
+    /**
+     * Records one computed fitness evaluation.
+     *
+     * @param nanos Time the evaluation took.
+     */
+    void recordEvaluation(long nanos) {
+        evaluationTime.record(nanos);
+    }
+
+    /**
+     * Records the split of a full-render evaluation.
+     *
+     * @param renderNanos Time spent rendering.
+     * @param mseNanos    Time spent computing the MSE.
+     */
+    void recordRenderAndMse(long renderNanos, long mseNanos) {
+        renderTime.record(renderNanos);
+        mseTime.record(mseNanos);
+    }
+
+    /**
+     * Records one fitness cache lookup.
+     *
+     * @param hit Whether the lookup found a value.
+     */
+    void recordCacheLookup(boolean hit) {
+        if (hit) {
+            fitnessCacheHits.increment();
+        } else {
+            fitnessCacheMisses.increment();
+        }
+    }
+
+    /**
+     * Records the breeding phase of a generation.
+     *
+     * @param nanos Time breeding took.
+     */
+    void recordBreeding(long nanos) {
+        breedingTime.record(nanos);
+    }
+
+    /**
+     * Records the fitness distribution of a scored population.
+     *
+     * @param generation Generation the population belongs to.
+     * @param fitness    Fitness of every individual.
+     * @param count      Number of valid entries in {@code fitness}.
+     */
+    void recordFitness(int generation, double[] fitness, int count) {
+        double best = 0;
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            best = Math.max(best, fitness[i]);
+            sum += fitness[i];
+        }
+        double mean = sum / count;
+        double squares = 0;
+        for (int i = 0; i < count; i++) {
+            double deviation = fitness[i] - mean;
+            squares += deviation * deviation;
+        }
+        this.generation = generation;
+        this.bestFitness = best;
+        this.meanFitness = mean;
+        this.fitnessStdDev = Math.sqrt(squares / count);
+    }
+
+    /**
+     * Records the end of one or more generations run in one go.
+     *
+     * @param generations    Number of generations run.
+     * @param nanos          Time they took.
+     * @param evaluations    Fitness evaluations computed during them.
+     * @param allocatedBytes Bytes allocated during them, or a negative value if unknown.
+     */
+    void recordGenerations(int generations, long nanos, long evaluations, long allocatedBytes) {
+        if (generations <= 0) {
+            return;
+        }
+        generationTime.record(nanos / generations);
+        if (allocatedBytes >= 0) { // Negative if unknown or if threads ended during the generations
+            allocatedPerGeneration.record(allocatedBytes / generations);
+        }
+        if (nanos > 0) {
+            evaluationsPerSecond = evaluations * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Reads the number of bytes allocated so far by all live threads of the JVM. Threads that
+     * ended in between drop out of the sum, so a difference of two readings is only meaningful
+     * while the worker threads stay alive, as pool threads do.
+     *
+     * @return Allocated bytes, or -1 if the JVM cannot measure allocation.
+     */
+    static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                long total = 0;
+                for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                    total += Math.max(0, bytes); // -1 for threads that ended meanwhile
+                }
+                return total;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,26 @@
+package com.martinszuc.polygen.ga;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the scoring of a whole population on the worker pool.
+ */
+@Name("com.martinszuc.polygen.EvaluationBatch")
+@Label("Evaluation Batch")
+@Category("Polygon Generator")
+@Description("Fitness evaluation of a population")
+final class EvaluationBatchEvent extends jdk.jfr.Event {
+    @Label("Generation")
+    int generation;
+
+    @Label("Individuals")
+    @Description("Individuals whose fitness had to be looked up or computed")
+    int individuals;
+
+    @Label("Evaluations")
+    @Description("Fitness evaluations computed, not counting cache hits")
+    long evaluations;
+}
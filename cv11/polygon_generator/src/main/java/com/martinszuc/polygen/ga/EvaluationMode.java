@@ -0,0 +1,23 @@
+package com.martinszuc.polygen.ga;
+
+/**
+ * Strategies for computing the fitness of an individual.
+ */
+public enum EvaluationMode {
+    /**
+     * Renders every polygon into a fresh image and compares the whole image with the target.
+     */
+    FULL_RENDER,
+
+    /**
+     * Keeps a cached render per individual and re-scores only the region touched by
+     * mutation or crossover since the last evaluation.
+     */
+    INCREMENTAL,
+
+    /**
+     * Composites each scanline with the software rasterizer and scores it against the target
+     * immediately, so the candidate image is never stored in full.
+     */
+    FUSED
+}
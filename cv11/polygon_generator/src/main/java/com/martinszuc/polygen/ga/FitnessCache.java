@@ -0,0 +1,113 @@
+package com.martinszuc.polygen.ga;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded memo of fitness values keyed by a 64-bit structural hash of the genome, so elites and
+ * offspring that came through breeding unchanged are not rendered again. The cache is split into
+ * independently locked LRU segments to keep contention low when many workers score at once.
+ * <p>
+ * Values are only valid for one target and renderer; callers must {@link #clear()} the cache when either changes.
+ */
+class FitnessCache {
+    private static final int SEGMENTS = 16;
+    // Odd multiplier for mixing values into a hash (the 64-bit golden ratio)
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final LinkedHashMap<Long, Double>[] segments;
+
+    /**
+     * Creates an empty cache. The capacity is split as evenly as possible across the segments,
+     * so below {@value #SEGMENTS} entries some segments keep nothing.
+     *
+     * @param capacity Maximum number of entries kept in total.
+     */
+    @SuppressWarnings("unchecked")
+    FitnessCache(int capacity) {
+        segments = (LinkedHashMap<Long, Double>[]) new LinkedHashMap<?, ?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            int segmentCapacity = capacity / SEGMENTS + (i < capacity % SEGMENTS ? 1 : 0);
+            segments[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                    return size() > segmentCapacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Looks up a fitness value and marks it as recently used.
+     *
+     * @param hash Genome hash.
+     * @return The cached fitness, or NaN if absent.
+     */
+    double get(long hash) {
+        LinkedHashMap<Long, Double> segment = segmentFor(hash);
+        Double fitness;
+        synchronized (segment) {
+            fitness = segment.get(hash);
+        }
+        return fitness != null ? fitness : Double.NaN;
+    }
+
+    /**
+     * Stores a fitness value, evicting the least recently used entry of its segment if full.
+     *
+     * @param hash    Genome hash.
+     * @param fitness Fitness of the genome.
+     */
+    void put(long hash, double fitness) {
+        LinkedHashMap<Long, Double> segment = segmentFor(hash);
+        synchronized (segment) {
+            segment.put(hash, fitness);
+        }
+    }
+
+    /**
+     * Drops every entry, e.g. after the target resolution or the renderer changed.
+     */
+    void clear() {
+        for (LinkedHashMap<Long, Double> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Mixes one value of a genome into a running hash.
+     *
+     * @param hash  Hash so far.
+     * @param value Next value of the genome.
+     * @return Updated hash.
+     */
+    static long combine(long hash, int value) {
+        return (hash + value) * HASH_MULTIPLIER;
+    }
+
+    /**
+     * Spreads the bits of a running hash so that similar genomes land in different segments.
+     *
+     * @param hash Hash of a whole genome.
+     * @return Final hash.
+     */
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Picks the segment responsible for a hash.
+     *
+     * @param hash Genome hash.
+     * @return The segment.
+     */
+    private LinkedHashMap<Long, Double> segmentFor(long hash) {
+        return segments[(int) (hash >>> 60)];
+    }
+}
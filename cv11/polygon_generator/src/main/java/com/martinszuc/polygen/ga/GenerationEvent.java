@@ -0,0 +1,43 @@
+package com.martinszuc.polygen.ga;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning one generation, or one island epoch or steady-state segment
+ * when those run several generations in one go. Its start and end mark the generation
+ * boundaries on the recording's timeline.
+ */
+@Name("com.martinszuc.polygen.Generation")
+@Label("Generation")
+@Category("Polygon Generator")
+@Description("One or more generations of the genetic algorithm")
+final class GenerationEvent extends jdk.jfr.Event {
+    @Label("Generation")
+    @Description("Generation count at the end of the event")
+    int generation;
+
+    @Label("Generations")
+    int generations;
+
+    @Label("Evaluations")
+    @Description("Fitness evaluations computed, not counting cache hits")
+    long evaluations;
+
+    @Label("Best Fitness")
+    double bestFitness;
+
+    @Label("Mean Fitness")
+    double meanFitness;
+
+    @Label("Fitness Standard Deviation")
+    double fitnessStdDev;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by all threads, or -1 if unknown")
+    @DataAmount
+    long allocated;
+}
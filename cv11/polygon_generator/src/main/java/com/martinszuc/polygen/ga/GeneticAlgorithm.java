@@ -1,13 +1,24 @@
 package com.martinszuc.polygen.ga;
 
 import com.martinszuc.polygen.utils.ImageUtils;
+import com.martinszuc.polygen.utils.RawPixelCache;
+import com.martinszuc.polygen.utils.RenderBackend;
+import com.martinszuc.polygen.utils.ScanlineRasterizer;
+import com.martinszuc.polygen.utils.TargetImage;
 
 import java.awt.image.BufferedImage;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -15,26 +26,87 @@ import java.util.logging.Level;
  * Manages the Genetic Algorithm for evolving individuals to approximate a target image.
  */
 public class GeneticAlgorithm {
-    private final BufferedImage targetImage;
+    private final int outputWidth;  // Full target resolution, used for saved images
+    private final int outputHeight;
+    private TargetImage target; // Channels unpacked once for scoring, at the current resolution level
+    private TargetImage[] pyramid = new TargetImage[0]; // Index 0 is full resolution
+    private int level = 0;
+    private int plateauGenerations;
+    private int plateauCheckGeneration;
+    private double plateauCheckFitness;
     private final int populationSize;
     private final int numPolygons;
     private final double mutationRate;
     private final String outputFormat; // e.g., "png" or "jpg"
     private Individual[] population;
+    private Selection selection; // Fitness of the object population, refilled every generation
+    private SelectionStrategy selectionStrategy = SelectionStrategy.TOURNAMENT;
+    private PopulationStore store;     // Current generation in flat layout, null otherwise
+    private PopulationStore nextStore; // Breeding buffer swapped with store each generation
     private final AtomicReference<Individual> bestIndividual = new AtomicReference<>(null);
-    private final Random rand = new Random();
+    private SplittableRandom rand; // Master generator of the current generation, split into one stream per breeding chunk
+    private RandomStreams seedStreams; // Derives the master and island generators from the run seed and the generation
     private final AtomicBoolean running = new AtomicBoolean(true);
+    private EvaluationMode evaluationMode = EvaluationMode.FULL_RENDER;
+    private RenderBackend renderBackend = RenderBackend.JAVA2D;
+    private boolean saveIntermediateImages = true;
+    private boolean pipelined = false;
+    private boolean parallelBreeding = false;
+    private boolean steadyState = false;
+    private int islandCount = 1;
+    private int migrationInterval;
+    private int migrantCount;
+    private MigrationTopology migrationTopology = MigrationTopology.RING;
+    private RandomStreams streams; // Counter-based streams replacing the generators above; null unless deterministic
+    private boolean populationScored = false; // Whether every current individual already has a valid fitness
+    private IncrementalEvaluator incrementalEvaluator;
+    private FitnessCache fitnessCache; // Null unless memoization is enabled
+    private boolean offHeapTarget = false;
+    // Java2D scoring canvas of each worker, reused across evaluations
+    private final ThreadLocal<BufferedImage> renderCanvases = new ThreadLocal<>();
 
     // ExecutorService for parallel processing
     private final ExecutorService executor;
-    // ExecutorService for image saving
-    private final ExecutorService imageSaverExecutor;
+    private final int threadPoolSize;
+    private final boolean ownsExecutor; // False if the pool is shared with other runs and must outlive this one
+    // Renders and saves intermediate images off the evolution threads
+    private final SnapshotPublisher snapshotPublisher;
+    private GenomeRecorder genomeRecorder; // Null unless improvements are written as genomes instead of images
 
+    // Targets at least this large score a candidate with several threads when not already on a worker
+    private static final int PARALLEL_MSE_PIXELS = 4096 * 4096;
+    // Relative best-fitness gain below which a resolution level counts as converged
+    private static final double PLATEAU_IMPROVEMENT_RATIO = 0.01;
+    // Offspring bred per task; fixed so results do not depend on the thread count
+    private static final int BREEDING_CHUNK_SIZE = 16;
+    // Individuals compared when the steady-state engine picks one to replace
+    private static final int REPLACEMENT_TOURNAMENT_SIZE = 5;
+    // Children bred and scored together by the deterministic steady-state engine; fixed so results do not depend on the thread count
+    private static final int STEADY_STATE_BATCH_SIZE = 32;
     private static final double FITNESS_IMPROVEMENT_THRESHOLD = 1e-4; // Adjusted threshold
-    private double lastBestFitness = Double.MIN_VALUE; // Initialize to the smallest possible value
 
     private int generationCount = 0; // Track the generation number
 
+    private TerminationPolicy terminationPolicy = new TerminationPolicy(); // No criteria until one is set
+    private volatile TerminationReason terminationReason; // Null while the run may go on
+    private volatile double generationBestFitness;        // Best fitness of the latest generation, for reporting
+    private final LongAdder evaluations = new LongAdder(); // Fitness values actually computed
+    private long runNanos;                                 // Time spent in earlier calls to advance()
+    private volatile long advanceStartNanos;               // Start of the current call to advance(), 0 outside
+    private volatile Thread driverThread;                  // Thread in the current call to advance(), not a worker
+
+    private final EngineMetrics metrics = new EngineMetrics();
+    private double[] fitnessStatistics; // Population fitness gathered for the metrics, reused every generation
+    private long generationStartNanos;  // Markers taken by beginGenerations()
+    private long generationStartEvaluations;
+    private long generationStartAllocated;
+
+    private CheckpointWriter checkpointWriter; // Null unless checkpointing is enabled
+    private int checkpointInterval;
+    private int lastCheckpointGeneration;
+    private long targetChecksum; // Fingerprint of the full-resolution target, computed by the first checkpoint or resume
+    private boolean targetChecksumKnown;
+
     private static final Logger logger = Logger.getLogger(GeneticAlgorithm.class.getName());
 
     /**
@@ -48,61 +120,295 @@ public class GeneticAlgorithm {
      * @param outputFormat   Desired output image format (e.g., "png", "jpg").
      */
     public GeneticAlgorithm(BufferedImage targetImage, int populationSize, int numPolygons, double mutationRate, int threadPoolSize, String outputFormat) {
-        this.targetImage = targetImage;
+        this(new TargetImage(targetImage), populationSize, numPolygons, mutationRate, threadPoolSize, outputFormat);
+    }
+
+    /**
+     * Constructor for a target that is already unpacked, e.g. loaded from a {@link RawPixelCache}.
+     *
+     * @param target         The unpacked image to approximate.
+     * @param populationSize Number of individuals in the population.
+     * @param numPolygons    Number of polygons per individual.
+     * @param mutationRate   Mutation probability.
+     * @param threadPoolSize Number of threads to use for parallel processing.
+     * @param outputFormat   Desired output image format (e.g., "png", "jpg").
+     */
+    public GeneticAlgorithm(TargetImage target, int populationSize, int numPolygons, double mutationRate, int threadPoolSize, String outputFormat) {
+        this(target, populationSize, numPolygons, mutationRate, Executors.newFixedThreadPool(threadPoolSize), threadPoolSize, true, outputFormat);
+    }
+
+    /**
+     * Constructor for a run that borrows a worker pool shared with other runs, e.g. in a batch.
+     * {@link #shutdownExecutors()} leaves the shared pool running.
+     *
+     * @param target         The unpacked image to approximate.
+     * @param populationSize Number of individuals in the population.
+     * @param numPolygons    Number of polygons per individual.
+     * @param mutationRate   Mutation probability.
+     * @param sharedExecutor Worker pool to run on.
+     * @param parallelism    Number of tasks the run should keep busy at once.
+     * @param outputFormat   Desired output image format (e.g., "png", "jpg").
+     */
+    public GeneticAlgorithm(TargetImage target, int populationSize, int numPolygons, double mutationRate,
+                            ExecutorService sharedExecutor, int parallelism, String outputFormat) {
+        this(target, populationSize, numPolygons, mutationRate, sharedExecutor, parallelism, false, outputFormat);
+    }
+
+    /**
+     * Common constructor.
+     *
+     * @param target         The unpacked image to approximate.
+     * @param populationSize Number of individuals in the population.
+     * @param numPolygons    Number of polygons per individual.
+     * @param mutationRate   Mutation probability.
+     * @param executor       Worker pool to run on.
+     * @param threadPoolSize Number of tasks the run should keep busy at once.
+     * @param ownsExecutor   Whether {@link #shutdownExecutors()} shuts the pool down.
+     * @param outputFormat   Desired output image format (e.g., "png", "jpg").
+     */
+    private GeneticAlgorithm(TargetImage target, int populationSize, int numPolygons, double mutationRate,
+                             ExecutorService executor, int threadPoolSize, boolean ownsExecutor, String outputFormat) {
+        this.outputWidth = target.getWidth();
+        this.outputHeight = target.getHeight();
+        this.target = target;
         this.populationSize = populationSize;
         this.numPolygons = numPolygons;
         this.mutationRate = mutationRate;
         this.outputFormat = outputFormat.toLowerCase();
+        this.executor = executor;
+        this.threadPoolSize = threadPoolSize;
+        this.ownsExecutor = ownsExecutor;
+        this.seedStreams = new RandomStreams(new SplittableRandom().nextLong());
+        this.selection = new Selection(populationSize, selectionStrategy);
         initializePopulation();
-        this.executor = Executors.newFixedThreadPool(threadPoolSize);
-        this.imageSaverExecutor = Executors.newSingleThreadExecutor();
+        this.snapshotPublisher = new SnapshotPublisher(outputWidth, outputHeight, this.outputFormat, 1000, 1);
     }
 
     /**
-     * Initializes the population with random individuals.
+     * Initializes the population with random individuals. Chunks of the population are generated
+     * in parallel, each from its own stream split off the master generator, or in deterministic
+     * mode every individual from its own counter-based stream.
      */
     private void initializePopulation() {
-        int imageWidth = targetImage.getWidth();
-        int imageHeight = targetImage.getHeight();
-        this.population = new Individual[populationSize];
-        for (int i = 0; i < populationSize; i++) {
-            population[i] = new Individual(numPolygons, imageWidth, imageHeight);
+        int imageWidth = target.getWidth();
+        int imageHeight = target.getHeight();
+        Individual[] newPopulation = new Individual[populationSize];
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        rand = seedStreams.stream(RandomStreams.MASTER, -1, 0);
+        for (int start = 0; start < populationSize; start += BREEDING_CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(populationSize, start + BREEDING_CHUNK_SIZE);
+            SplittableRandom chunkRandom = streams == null ? rand.split() : null;
+            tasks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    RandomGenerator random = streamOr(chunkRandom, RandomStreams.INITIALIZATION, 0, i);
+                    newPopulation[i] = new Individual(numPolygons, imageWidth, imageHeight, random);
+                }
+                return null;
+            });
+        }
+
+        invokeAllOrLog(tasks, "Population initialization was interrupted.");
+        this.population = newPopulation;
+    }
+
+    /**
+     * Gets the counter-based stream for a key in deterministic mode, or the given generator otherwise.
+     *
+     * @param fallback   Generator used outside deterministic mode.
+     * @param purpose    What the draws are for, one of the {@link RandomStreams} constants.
+     * @param generation Generation the draws belong to.
+     * @param index      Population slot or island start the draws belong to.
+     * @return The generator to draw from.
+     */
+    private RandomGenerator streamOr(RandomGenerator fallback, int purpose, long generation, long index) {
+        return streams != null ? streams.stream(purpose, generation, index) : fallback;
+    }
+
+    /**
+     * Runs tasks on the worker pool and waits for all of them.
+     *
+     * @param tasks              The tasks to run.
+     * @param interruptedMessage Message logged if the caller is interrupted while waiting.
+     */
+    private void invokeAllOrLog(List<Callable<Void>> tasks, String interruptedMessage) {
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.severe(interruptedMessage);
         }
     }
 
     /**
      * Evaluates the fitness of all individuals in the population using parallel processing.
+     * Individuals whose fitness is still valid, such as elites, are skipped.
      */
     private void evaluateFitness() {
+        EvaluationBatchEvent event = new EvaluationBatchEvent();
+        event.begin();
+        long evaluationsBefore = evaluations.sum();
         List<Callable<Void>> tasks = new ArrayList<>();
 
         for (Individual individual : population) {
+            if (individual.isFitnessValid()) {
+                continue;
+            }
+            tasks.add(() -> {
+                scoreIndividual(individual);
+                return null;
+            });
+        }
+
+        invokeAllOrLog(tasks, "Fitness evaluation was interrupted.");
+        if (streams != null) {
+            offerFittest();
+        }
+        commitEvaluationBatch(event, tasks.size(), evaluationsBefore);
+    }
+
+    /**
+     * Ends an evaluation batch event and commits it if it is being recorded.
+     *
+     * @param event             The event begun before the batch.
+     * @param individuals       Number of individuals scored in the batch.
+     * @param evaluationsBefore Evaluation count when the batch started.
+     */
+    private void commitEvaluationBatch(EvaluationBatchEvent event, int individuals, long evaluationsBefore) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.generation = generationCount;
+            event.individuals = individuals;
+            event.evaluations = evaluations.sum() - evaluationsBefore;
+            event.commit();
+        }
+    }
+
+    /**
+     * Calculates and stores the fitness of one individual and offers it as the new best.
+     * Does nothing if the individual's fitness is still valid, since it was offered when computed.
+     * In deterministic mode the best is not offered here but by the caller, once the batch is
+     * scored, so the order in which workers finish cannot change which individual wins.
+     *
+     * @param individual The individual to evaluate.
+     */
+    private void scoreIndividual(Individual individual) {
+        if (individual.isFitnessValid()) {
+            return;
+        }
+        double fitness;
+        if (fitnessCache == null) {
+            fitness = calculateFitness(individual);
+        } else {
+            long hash = individual.genomeHash();
+            fitness = fitnessCache.get(hash);
+            metrics.recordCacheLookup(!Double.isNaN(fitness));
+            if (Double.isNaN(fitness)) {
+                fitness = calculateFitness(individual);
+                fitnessCache.put(hash, fitness);
+            }
+        }
+        individual.setFitness(fitness);
+        if (streams == null) {
+            updateBest(fitness, individual::copy);
+        }
+    }
+
+    /**
+     * Evaluates the fitness of all individuals in the flat store using parallel processing.
+     */
+    private void evaluateFitnessFlat() {
+        EvaluationBatchEvent event = new EvaluationBatchEvent();
+        event.begin();
+        long evaluationsBefore = evaluations.sum();
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < populationSize; i++) {
+            int index = i;
             tasks.add(() -> {
-                double fitness = calculateFitness(individual);
-                individual.setFitness(fitness);
-
-                // Update the best individual atomically
-                bestIndividual.updateAndGet(currentBest -> {
-                    if (currentBest == null || fitness > currentBest.getFitness()) {
-                        // Check for significant improvement
-                        if (currentBest == null || (fitness - lastBestFitness) > FITNESS_IMPROVEMENT_THRESHOLD) {
-                            lastBestFitness = fitness;
-                            saveIntermediateImage(individual, generationCount);
-                            logger.info("New best fitness: " + fitness);
-                            return individual.copy();
-                        }
+                long hash = fitnessCache != null ? store.genomeHash(index) : 0;
+                double fitness = fitnessCache != null ? fitnessCache.get(hash) : Double.NaN;
+                if (fitnessCache != null) {
+                    metrics.recordCacheLookup(!Double.isNaN(fitness));
+                }
+                if (Double.isNaN(fitness)) {
+                    evaluations.increment();
+                    long start = System.nanoTime();
+                    long error = store.renderAndScore(index, target);
+                    metrics.recordEvaluation(System.nanoTime() - start);
+                    double mse = (double) error / ((double) target.getPixelCount() * 3);
+                    fitness = 1.0 / (mse + 1e-10);
+                    if (fitnessCache != null) {
+                        fitnessCache.put(hash, fitness);
                     }
-                    return currentBest;
-                });
+                }
+                store.setFitness(index, fitness);
+                if (streams == null) {
+                    updateBest(fitness, () -> store.toIndividual(index));
+                }
                 return null;
             });
         }
 
-        try {
-            executor.invokeAll(tasks);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.severe("Fitness evaluation was interrupted.");
+        invokeAllOrLog(tasks, "Fitness evaluation was interrupted.");
+        if (streams != null) {
+            offerFittest();
+        }
+        commitEvaluationBatch(event, populationSize, evaluationsBefore);
+    }
+
+    /**
+     * Offers the fittest individual of the scored population as the new best, the first one in
+     * population order on ties. Used in deterministic mode instead of offering every individual
+     * as soon as a worker scores it.
+     */
+    private void offerFittest() {
+        int fittest = 0;
+        for (int i = 1; i < populationSize; i++) {
+            double fitness = store != null ? store.getFitness(i) : population[i].getFitness();
+            double best = store != null ? store.getFitness(fittest) : population[fittest].getFitness();
+            if (fitness > best) {
+                fittest = i;
+            }
+        }
+        int index = fittest;
+        if (store != null) {
+            updateBest(store.getFitness(index), () -> store.toIndividual(index));
+        } else {
+            updateBest(population[index].getFitness(), population[index]::copy);
+        }
+    }
+
+    /**
+     * Replaces the best individual if the given fitness is a significant improvement.
+     *
+     * @param fitness  Fitness of the candidate.
+     * @param snapshot Creates an independent copy of the candidate, only called if it becomes the best.
+     */
+    private void updateBest(double fitness, Supplier<Individual> snapshot) {
+        // Update the best individual atomically; side effects only follow a successful swap
+        while (true) {
+            Individual currentBest = bestIndividual.get();
+            // Compared with the reference just read, so a concurrent swap cannot leave a stale threshold
+            if (currentBest != null && fitness - currentBest.getFitness() <= FITNESS_IMPROVEMENT_THRESHOLD) {
+                return; // Not a significant improvement
+            }
+            Individual best = snapshot.get();
+            if (bestIndividual.compareAndSet(currentBest, best)) {
+                logger.info(() -> "New best fitness: " + fitness);
+                if (saveIntermediateImages) {
+                    double scaleX = (double) outputWidth / target.getWidth();
+                    double scaleY = (double) outputHeight / target.getHeight();
+                    GenomeRecorder recorder = genomeRecorder;
+                    if (recorder != null) {
+                        recorder.offer(best, generationCount, fitness, scaleX, scaleY);
+                    } else {
+                        snapshotPublisher.offer(best, generationCount, scaleX, scaleY, renderBackend);
+                    }
+                }
+                return;
+            }
         }
     }
 
@@ -113,46 +419,72 @@ public class GeneticAlgorithm {
      * @return The fitness value.
      */
     private double calculateFitness(Individual individual) {
-        BufferedImage generatedImage = ImageUtils.renderImage(individual, targetImage.getWidth(), targetImage.getHeight());
-        double mse = ImageUtils.calculateMSE(targetImage, generatedImage);
-        // Allow GC to reclaim the image
-        generatedImage.flush();
-        return 1.0 / (mse + 1e-10);
+        evaluations.increment();
+        long start = System.nanoTime();
+        double fitness = computeFitness(individual, start);
+        metrics.recordEvaluation(System.nanoTime() - start);
+        return fitness;
     }
 
     /**
-     * Saves the intermediate image of the best individual.
+     * Computes the fitness of an individual in the configured evaluation mode. Full renders
+     * record how their time splits between rendering and the MSE.
      *
-     * @param individual      The best individual.
-     * @param generationCount The current generation count.
+     * @param individual The individual to evaluate.
+     * @param start      {@link System#nanoTime()} when the evaluation started.
+     * @return The fitness value.
      */
-    private void saveIntermediateImage(Individual individual, int generationCount) {
-        int imageWidth = targetImage.getWidth();
-        int imageHeight = targetImage.getHeight();
-        imageSaverExecutor.submit(() -> {
-            BufferedImage finalImage = ImageUtils.renderImage(individual, imageWidth, imageHeight);
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
-            String filename = String.format("output/intermediate_gen_%05d_%s.%s", generationCount, timestamp, outputFormat);
-            ImageUtils.saveImage(finalImage, filename, outputFormat);
-            logger.info("Image saved to " + filename);
-        });
+    private double computeFitness(Individual individual, long start) {
+        if (evaluationMode == EvaluationMode.INCREMENTAL) {
+            return incrementalEvaluator.evaluate(individual);
+        }
+        if (evaluationMode == EvaluationMode.FUSED) {
+            long error = ScanlineRasterizer.renderAndScore(individual, target);
+            double mse = (double) error / ((double) target.getPixelCount() * 3);
+            return 1.0 / (mse + 1e-10);
+        }
+        int[] pixels;
+        if (renderBackend == RenderBackend.SCANLINE) {
+            pixels = ScanlineRasterizer.render(individual, target.getWidth(), target.getHeight());
+        } else {
+            BufferedImage canvas = renderCanvases.get();
+            if (canvas == null || canvas.getWidth() != target.getWidth() || canvas.getHeight() != target.getHeight()) {
+                canvas = new BufferedImage(target.getWidth(), target.getHeight(), BufferedImage.TYPE_INT_ARGB);
+                renderCanvases.set(canvas);
+            }
+            ImageUtils.renderInto(individual, canvas, null);
+            pixels = ImageUtils.packedPixels(canvas);
+        }
+        long rendered = System.nanoTime();
+        double mse = scorePixels(pixels);
+        metrics.recordRenderAndMse(rendered - start, System.nanoTime() - rendered);
+        return 1.0 / (mse + 1e-10);
     }
 
     /**
-     * Selects an individual from the population using tournament selection.
+     * Computes the MSE of rendered pixels. Workers already score individuals side by side, so
+     * they score each one serially; only the thread driving the run splits very large targets
+     * across the worker pool.
      *
-     * @return Selected Individual.
+     * @param pixels Candidate pixels in row-major order.
+     * @return The MSE value.
      */
-    private Individual selectParent() {
-        int tournamentSize = 5;
-        Individual best = null;
-        for (int i = 0; i < tournamentSize; i++) {
-            Individual randomIndividual = population[rand.nextInt(populationSize)];
-            if (best == null || randomIndividual.getFitness() > best.getFitness()) {
-                best = randomIndividual;
-            }
+    private double scorePixels(int[] pixels) {
+        if (target.getPixelCount() >= PARALLEL_MSE_PIXELS && Thread.currentThread() == driverThread) {
+            return ImageUtils.calculateMSEParallel(target, pixels, executor);
         }
-        return best;
+        return ImageUtils.calculateMSE(target, pixels);
+    }
+
+    /**
+     * Performs crossover between two parents to produce two offspring.
+     *
+     * @param parent1 First parent.
+     * @param parent2 Second parent.
+     * @return List containing two offspring.
+     */
+    List<Individual> crossover(Individual parent1, Individual parent2) {
+        return crossover(parent1, parent2, rand);
     }
 
     /**
@@ -160,117 +492,1454 @@ public class GeneticAlgorithm {
      *
      * @param parent1 First parent.
      * @param parent2 Second parent.
+     * @param random  Source of randomness.
      * @return List containing two offspring.
      */
-    private List<Individual> crossover(Individual parent1, Individual parent2) {
+    private List<Individual> crossover(Individual parent1, Individual parent2, RandomGenerator random) {
         Individual offspring1 = parent1.copy();
         Individual offspring2 = parent2.copy();
 
         // Single-point crossover based on polygons
-        int crossoverPoint = rand.nextInt(numPolygons);
+        int crossoverPoint = random.nextInt(numPolygons);
         for (int i = crossoverPoint; i < numPolygons; i++) {
-            offspring1.getPolygons()[i] = parent2.getPolygons()[i].copy();
-            offspring2.getPolygons()[i] = parent1.getPolygons()[i].copy();
+            offspring1.setPolygon(i, parent2.getPolygonArray()[i].copy());
+            offspring2.setPolygon(i, parent1.getPolygonArray()[i].copy());
         }
 
         return Arrays.asList(offspring1, offspring2);
     }
 
     /**
-     * Evolves the population for a specified number of generations.
+     * Evolves the population for a specified number of generations, or until the termination
+     * policy ends the run.
      *
      * @param maxGenerations Maximum number of generations to evolve.
      */
     public void evolve(int maxGenerations) {
-        int imageWidth = targetImage.getWidth();
-        int imageHeight = targetImage.getHeight();
+        int lastGeneration = generationCount + maxGenerations;
+        advance(maxGenerations);
+        if (generationCount >= lastGeneration) {
+            terminate(TerminationReason.GENERATION_LIMIT);
+            checkpointIfBehind();
+        }
 
-        for (int generation = 1; generation <= maxGenerations && running.get(); generation++) {
-            generationCount = generation;
-            logger.info("Generation: " + generation);
-            evaluateFitness();
+        // Shutdown the executor services gracefully
+        shutdownExecutors();
+    }
+
+    /**
+     * Runs more generations, continuing where the previous call stopped. Unlike
+     * {@link #evolve(int)} this leaves the executors running, so a scheduler can evolve
+     * many runs a slice at a time. Returns immediately once the run was terminated.
+     *
+     * @param generations Maximum number of generations to run in this call.
+     */
+    public void advance(int generations) {
+        if (terminationReason != null) {
+            return;
+        }
+        if (generationCount == 0 && runNanos == 0) {
+            logger.info("Termination policy: " + terminationPolicy);
+            if (streams != null) {
+                logger.info("Deterministic run with seed " + streams.getSeed());
+            }
+        }
+        advanceStartNanos = System.nanoTime();
+        driverThread = Thread.currentThread();
+        try {
+            if (steadyState) {
+                evolveSteadyState(generations);
+            } else if (islandCount > 1) {
+                evolveIslands(generations);
+            } else {
+                evolveGenerational(generations);
+            }
+            // A stopped run saves its last generation, e.g. when the machine is preempted
+            if (terminationReason != null) {
+                checkpointIfBehind();
+            }
+        } finally {
+            runNanos += System.nanoTime() - advanceStartNanos;
+            advanceStartNanos = 0;
+            driverThread = null;
+        }
+    }
+
+    /**
+     * Generational evolution, continuing from the current generation count.
+     *
+     * @param generations Maximum number of generations to evolve.
+     */
+    private void evolveGenerational(int generations) {
+        for (int i = 0; i < generations && running.get(); i++) {
+            int generation = ++generationCount;
+            GenerationEvent event = beginGenerations();
+            nextGeneration();
+            endGenerations(event, 1);
 
-            // Sort population by fitness in descending order
-            Arrays.sort(population, Comparator.comparingDouble(Individual::getFitness).reversed());
+            // Log current best fitness; the message is only built if it is logged
+            double currentBestFitness = store != null ? store.getFitness(0) : population[0].getFitness();
+            logger.info(() -> "Generation: " + generation + ", current best fitness: " + currentBestFitness);
 
-            // Retain top 10% as elites
-            int eliteCount = (int) (populationSize * 0.1);
-            Individual[] elites = Arrays.copyOfRange(population, 0, eliteCount);
+            checkTermination(currentBestFitness);
+            if (level > 0 && hasPlateaued(currentBestFitness)) {
+                promoteLevel();
+            }
+            checkpointIfDue();
+        }
+    }
 
-            // Initialize new population with elites
-            Individual[] newPopulation = new Individual[populationSize];
-            System.arraycopy(elites, 0, newPopulation, 0, eliteCount);
+    /**
+     * Runs one generation: evaluates the population and replaces it with elites and offspring.
+     */
+    void nextGeneration() {
+        rand = seedStreams.stream(RandomStreams.MASTER, generationCount, 0);
+        if (store != null) {
+            nextGenerationFlat();
+            return;
+        }
+        if (pipelined) {
+            nextGenerationPipelined();
+            return;
+        }
 
-            // Generate the rest of the new population
-            int offspringIndex = eliteCount;
-            while (offspringIndex < populationSize) {
-                Individual parent1 = selectParent();
-                Individual parent2 = selectParent();
+        evaluateFitness();
+        recordFitnessStatistics();
 
-                List<Individual> offspring = crossover(parent1, parent2);
+        // Replace old population with new population
+        long breedingStart = System.nanoTime();
+        population = breed(child -> { });
+        metrics.recordBreeding(System.nanoTime() - breedingStart);
+    }
 
-                for (Individual child : offspring) {
-                    // Mutation
-                    if (rand.nextDouble() < mutationRate) {
-                        child.mutate(imageWidth, imageHeight);
-                    }
+    /**
+     * Runs one generation whose offspring are scored while breeding is still going on.
+     * Each child is queued on the executor as soon as it exists, and the generation ends
+     * once the last queued child is scored, so the next one starts fully evaluated.
+     */
+    private void nextGenerationPipelined() {
+        if (!populationScored) {
+            evaluateFitness();
+        }
 
-                    // Add to new population
-                    if (offspringIndex < populationSize) {
-                        newPopulation[offspringIndex++] = child;
-                    }
-                }
+        // Offspring bred on the workers are scored right where they were bred
+        if (parallelBreeding) {
+            population = breed(this::scoreIndividual);
+            populationScored = true;
+            if (streams != null) {
+                offerFittest();
             }
+            recordFitnessStatistics();
+            return;
+        }
 
-            // Replace old population with new population
-            population = newPopulation;
+        List<Future<?>> pending = new ArrayList<>(populationSize);
+        Individual[] newPopulation = breed(child -> pending.add(executor.submit(() -> scoreIndividual(child))));
 
-            // Log current best fitness
-            Individual currentBest = population[0];
-            logger.info("Current best fitness: " + currentBest.getFitness());
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.severe("Fitness evaluation was interrupted.");
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Fitness evaluation failed.", e.getCause());
         }
 
-        // Shutdown the executor services gracefully
-        shutdownExecutors();
+        // Replace old population with new population
+        population = newPopulation;
+        populationScored = true;
+        if (streams != null) {
+            offerFittest();
+        }
+        recordFitnessStatistics();
     }
 
     /**
-     * Stops the evolution process.
+     * Builds the next population from the current, already evaluated one.
+     *
+     * @param onOffspring Called with every new child once it is final; elites are not passed.
+     * @return The new population, elites first.
      */
-    public void stop() {
-        running.set(false);
+    private Individual[] breed(Consumer<Individual> onOffspring) {
+        // Retain top 10% as elites, fittest first
+        int eliteCount = (int) (populationSize * 0.1);
+        int[] elites = loadSelection(selection, 0, eliteCount, streamOr(rand, RandomStreams.SELECTION, generationCount, 0));
+
+        // Initialize new population with elites
+        Individual[] newPopulation = new Individual[populationSize];
+        for (int i = 0; i < eliteCount; i++) {
+            newPopulation[i] = population[elites[i]];
+        }
+
+        // Generate the rest of the new population
+        if (parallelBreeding) {
+            breedParallel(newPopulation, eliteCount, onOffspring);
+        } else {
+            breedRange(selection, 0, newPopulation, eliteCount, populationSize, generationCount, rand, onOffspring);
+        }
+
+        return newPopulation;
     }
 
     /**
-     * Gets the best individual found.
+     * Breeds offspring in fixed-size chunks on the worker pool. Every chunk gets its own stream
+     * split off the master generator in chunk order, so the result depends only on the seed.
+     * Deterministic runs need no chunk streams, since every pair of offspring has its own.
      *
-     * @return Best Individual.
+     * @param newPopulation Population being filled.
+     * @param eliteCount    Number of elite slots already filled.
+     * @param onOffspring   Called on the worker thread with every new child.
      */
-    public Individual getBestIndividual() {
-        return bestIndividual.get();
+    private void breedParallel(Individual[] newPopulation, int eliteCount, Consumer<Individual> onOffspring) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = eliteCount; start < populationSize; start += BREEDING_CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(populationSize, start + BREEDING_CHUNK_SIZE);
+            SplittableRandom random = streams == null ? rand.split() : null;
+            tasks.add(() -> {
+                breedRange(selection, 0, newPopulation, from, to, generationCount, random, onOffspring);
+                return null;
+            });
+        }
+        invokeAllOrLog(tasks, "Breeding was interrupted.");
     }
 
     /**
-     * Shuts down the executor services gracefully.
+     * Copies the fitness of a range of the population into a selector and prepares it for a generation.
+     *
+     * @param selector   Selector sized to the range.
+     * @param from       First population index of the range.
+     * @param eliteCount Number of elites to return.
+     * @param random     Source of randomness owned by the calling thread.
+     * @return Population-relative indices of the elites, fittest first.
      */
-    public void shutdownExecutors() {
-        executor.shutdown();
-        imageSaverExecutor.shutdown();
-        try {
-            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-                if (!executor.awaitTermination(60, TimeUnit.SECONDS))
-                    logger.severe("Executor did not terminate.");
+    private int[] loadSelection(Selection selector, int from, int eliteCount, RandomGenerator random) {
+        for (int i = 0; i < selector.size(); i++) {
+            selector.setFitness(i, population[from + i].getFitness());
+        }
+        int[] elites = selector.topIndices(eliteCount);
+        for (int i = 0; i < eliteCount; i++) {
+            elites[i] += from;
+        }
+        selector.prepare(selector.size() - eliteCount, random);
+        return elites;
+    }
+
+    /**
+     * Fills a range of the new population with mutated offspring of selected parents. Parent
+     * draws are numbered by slot, so a range bred on its own picks the same parents as it would
+     * as part of the whole population.
+     *
+     * @param selector      Prepared selector over the parent pool.
+     * @param poolFrom      Population index of the selector's first individual.
+     * @param newPopulation Population being filled.
+     * @param from          First slot to fill (inclusive).
+     * @param to            Last slot to fill (exclusive).
+     * @param generation    Generation being bred, which keys the streams in deterministic mode.
+     * @param random        Source of randomness, owned by the calling thread; unused in deterministic mode.
+     * @param onOffspring   Called with every new child once it is final.
+     */
+    private void breedRange(Selection selector, int poolFrom, Individual[] newPopulation, int from, int to,
+                            int generation, RandomGenerator random, Consumer<Individual> onOffspring) {
+        int imageWidth = target.getWidth();
+        int imageHeight = target.getHeight();
+
+        int offspringIndex = from;
+        while (offspringIndex < to) {
+            // Each pair of offspring has its own stream in deterministic mode
+            RandomGenerator pairRandom = streamOr(random, RandomStreams.BREEDING, generation, poolFrom + offspringIndex);
+            Individual parent1 = population[poolFrom + selector.select(pairRandom, offspringIndex)];
+            Individual parent2 = population[poolFrom + selector.select(pairRandom, offspringIndex + 1)];
+
+            List<Individual> offspring = crossover(parent1, parent2, pairRandom);
+
+            for (Individual child : offspring) {
+                // Mutation
+                if (pairRandom.nextDouble() < mutationRate) {
+                    child.mutate(imageWidth, imageHeight, pairRandom);
+                }
+
+                // Add to new population
+                if (offspringIndex < to) {
+                    newPopulation[offspringIndex++] = child;
+                    onOffspring.accept(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Steady-state evolution, continuing from the current generation count. Every worker loops on its own: it picks parents by tournament from
+     * the shared population, breeds and scores a child, and swaps it in for the loser of an inverse
+     * tournament with a compare-and-set. No worker ever waits for another, so slow evaluations of
+     * large or overlapping polygons do not leave cores idle. A generation here is
+     * {@code populationSize} births; workers only meet when a pyramid level may have to change.
+     * Deterministic runs use {@link #breedSteadyStateInOrder} instead, which gives up some of that
+     * independence for a result that does not depend on thread timing.
+     *
+     * @param generations Maximum number of generations to evolve.
+     */
+    private void evolveSteadyState(int generations) {
+        if (store != null || islandCount > 1) {
+            throw new IllegalStateException("The steady-state engine requires the object layout without islands");
+        }
+        if (!populationScored) {
+            evaluateFitness();
+            populationScored = true;
+        }
+
+        int generation = generationCount;
+        int lastGeneration = generationCount + generations;
+        while (generation < lastGeneration && running.get()) {
+            // Run straight to the end unless the resolution level may change or a checkpoint is due on the way
+            int segment = level > 0 ? Math.min(plateauGenerations, lastGeneration - generation) : lastGeneration - generation;
+            if (checkpointWriter != null) {
+                segment = Math.max(1, Math.min(segment, lastCheckpointGeneration + checkpointInterval - generation));
             }
-            if (!imageSaverExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
-                imageSaverExecutor.shutdownNow();
-                if (!imageSaverExecutor.awaitTermination(60, TimeUnit.SECONDS))
-                    logger.severe("Image Saver Executor did not terminate.");
+            int firstGeneration = generation;
+            GenerationEvent event = beginGenerations();
+            AtomicReferenceArray<Individual> slots = new AtomicReferenceArray<>(population);
+            AtomicLong births = new AtomicLong();
+            long budget = (long) segment * populationSize;
+
+            if (streams != null) {
+                breedSteadyStateInOrder(slots, births, budget, firstGeneration);
+            } else {
+                rand = seedStreams.stream(RandomStreams.MASTER, firstGeneration, 0);
+                List<Callable<Void>> workers = new ArrayList<>();
+                for (int i = 0; i < threadPoolSize; i++) {
+                    SplittableRandom random = rand.split();
+                    workers.add(() -> {
+                        breedSteadyState(slots, births, budget, firstGeneration, random);
+                        return null;
+                    });
+                }
+                invokeAllOrLog(workers, "Steady-state evolution was interrupted.");
             }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            imageSaverExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+
+            for (int i = 0; i < populationSize; i++) {
+                population[i] = slots.get(i);
+            }
+            generation += (int) (Math.min(births.get(), budget) / populationSize);
+            generationCount = generation;
+            recordFitnessStatistics();
+            endGenerations(event, generation - firstGeneration);
+
+            if (level > 0 && hasPlateaued(bestIndividual.get().getFitness())) {
+                promoteLevel();
+                evaluateFitness();
+                populationScored = true;
+            }
+            checkpointIfDue();
+        }
+    }
+
+    /**
+     * Worker loop of the steady-state engine; runs until the shared birth budget is used up.
+     *
+     * @param slots           The shared population.
+     * @param births          Shared count of children bred so far in this segment.
+     * @param budget          Number of children to breed in this segment.
+     * @param firstGeneration Generation number the segment starts at, for logging.
+     * @param random          Source of randomness owned by this worker.
+     */
+    private void breedSteadyState(AtomicReferenceArray<Individual> slots, AtomicLong births, long budget,
+                                  int firstGeneration, RandomGenerator random) {
+        int imageWidth = target.getWidth();
+        int imageHeight = target.getHeight();
+
+        long birth;
+        while (running.get() && (birth = births.getAndIncrement()) < budget) {
+            Individual parent1 = selectParent(slots, random);
+            Individual parent2 = selectParent(slots, random);
+            Individual child = crossover(parent1, parent2, random).get(0);
+            if (random.nextDouble() < mutationRate) {
+                child.mutate(imageWidth, imageHeight, random);
+            }
+            scoreIndividual(child);
+            replaceLoser(slots, child, random);
+
+            if ((birth + 1) % populationSize == 0) {
+                endSteadyStateGeneration(slots, firstGeneration + (int) ((birth + 1) / populationSize));
+            }
+        }
+    }
+
+    /**
+     * Deterministic variant of the steady-state worker loop. Children are bred and scored in
+     * parallel in fixed-size batches, each from its own counter-based stream and from the
+     * population as it stood when the batch started, and are then swapped in one at a time in
+     * birth order. Children of one batch never become each other's parents, but neither the
+     * thread count nor the order in which workers finish changes the result.
+     *
+     * @param slots           The shared population.
+     * @param births          Count of children swapped in so far in this segment.
+     * @param budget          Number of children to breed in this segment.
+     * @param firstGeneration Generation number the segment starts at.
+     */
+    private void breedSteadyStateInOrder(AtomicReferenceArray<Individual> slots, AtomicLong births, long budget,
+                                         int firstGeneration) {
+        int imageWidth = target.getWidth();
+        int imageHeight = target.getHeight();
+        long firstBirth = (long) firstGeneration * populationSize;
+        Individual[] children = new Individual[STEADY_STATE_BATCH_SIZE];
+        SplittableRandom[] randoms = new SplittableRandom[STEADY_STATE_BATCH_SIZE];
+
+        long birth = 0;
+        while (birth < budget && running.get()) {
+            int count = (int) Math.min(STEADY_STATE_BATCH_SIZE, budget - birth);
+            List<Callable<Void>> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int child = i;
+                SplittableRandom random = streams.stream(RandomStreams.STEADY_STATE, 0, firstBirth + birth + i);
+                randoms[i] = random;
+                tasks.add(() -> {
+                    Individual parent1 = selectParent(slots, random);
+                    Individual parent2 = selectParent(slots, random);
+                    Individual offspring = crossover(parent1, parent2, random).get(0);
+                    if (random.nextDouble() < mutationRate) {
+                        offspring.mutate(imageWidth, imageHeight, random);
+                    }
+                    scoreIndividual(offspring);
+                    children[child] = offspring;
+                    return null;
+                });
+            }
+            invokeAllOrLog(tasks, "Steady-state evolution was interrupted.");
+            if (Thread.currentThread().isInterrupted()) {
+                return; // Some children of the batch may be missing
+            }
+
+            // The replacement tournaments continue each child's own stream
+            for (int i = 0; i < count && running.get(); i++) {
+                replaceLoser(slots, children[i], randoms[i]);
+                updateBest(children[i].getFitness(), children[i]::copy);
+                births.set(++birth);
+                if (birth % populationSize == 0) {
+                    endSteadyStateGeneration(slots, firstGeneration + (int) (birth / populationSize));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports a completed steady-state generation and checks the termination policy.
+     *
+     * @param slots      The shared population.
+     * @param generation Number of the generation just completed.
+     */
+    private void endSteadyStateGeneration(AtomicReferenceArray<Individual> slots, int generation) {
+        generationCount = generation;
+        double currentBestFitness = 0;
+        for (int i = 0; i < populationSize; i++) {
+            currentBestFitness = Math.max(currentBestFitness, slots.get(i).getFitness());
+        }
+        double best = currentBestFitness;
+        logger.info(() -> "Generation: " + generation + ", current best fitness: " + best);
+        checkTermination(currentBestFitness);
+    }
+
+    /**
+     * Selects an individual from the shared steady-state population using tournament selection.
+     *
+     * @param slots  The shared population.
+     * @param random Source of randomness.
+     * @return Selected Individual.
+     */
+    private Individual selectParent(AtomicReferenceArray<Individual> slots, RandomGenerator random) {
+        int tournamentSize = 5;
+        Individual best = null;
+        for (int i = 0; i < tournamentSize; i++) {
+            Individual randomIndividual = slots.get(random.nextInt(populationSize));
+            if (best == null || randomIndividual.getFitness() > best.getFitness()) {
+                best = randomIndividual;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Replaces the worst of a few random individuals with the child, if the child is fitter.
+     * A lost compare-and-set means another worker replaced that slot first, so a new loser is drawn.
+     * The fittest individual can never lose an inverse tournament against a weaker child.
+     *
+     * @param slots  The shared population.
+     * @param child  The scored child.
+     * @param random Source of randomness.
+     */
+    private void replaceLoser(AtomicReferenceArray<Individual> slots, Individual child, RandomGenerator random) {
+        while (true) {
+            int loserIndex = -1;
+            Individual loser = null;
+            for (int i = 0; i < REPLACEMENT_TOURNAMENT_SIZE; i++) {
+                int index = random.nextInt(populationSize);
+                Individual candidate = slots.get(index);
+                if (loser == null || candidate.getFitness() < loser.getFitness()) {
+                    loserIndex = index;
+                    loser = candidate;
+                }
+            }
+            if (child.getFitness() <= loser.getFitness() || slots.compareAndSet(loserIndex, loser, child)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Island-model evolution, continuing from the current generation count. The population is split into contiguous islands that evolve
+     * independently on the worker pool and only meet at migration points, every
+     * {@code migrationInterval} generations.
+     *
+     * @param generations Maximum number of generations to evolve.
+     */
+    private void evolveIslands(int generations) {
+        if (store != null) {
+            throw new IllegalStateException("The island model requires the object population layout");
+        }
+        int generation = generationCount;
+        int lastGeneration = generationCount + generations;
+        while (generation < lastGeneration && running.get()) {
+            int epoch = Math.min(migrationInterval, lastGeneration - generation);
+            boolean scored = populationScored;
+            GenerationEvent event = beginGenerations();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            // Migration draws from the master generator, each island from its own stream
+            rand = seedStreams.stream(RandomStreams.MASTER, generation, 0);
+            for (int i = 0; i < islandCount; i++) {
+                int island = i;
+                int epochStart = generation;
+                SplittableRandom islandRandom = seedStreams.stream(RandomStreams.MASTER, generation, 1 + island);
+                tasks.add(() -> {
+                    evolveIsland(islandStart(island), islandStart(island + 1), islandRandom, epochStart, epoch, scored);
+                    return null;
+                });
+            }
+            invokeAllOrLog(tasks, "Island evolution was interrupted.");
+            populationScored = true;
+
+            generation += epoch;
+            generationCount = generation;
+            if (streams != null) {
+                offerFittest();
+            }
+            recordFitnessStatistics();
+            endGenerations(event, epoch);
+            migrate();
+
+            double currentBestFitness = 0;
+            for (int i = 0; i < islandCount; i++) {
+                currentBestFitness = Math.max(currentBestFitness, population[islandStart(i)].getFitness());
+            }
+            int epochEnd = generation;
+            double best = currentBestFitness;
+            logger.info(() -> "Generation: " + epochEnd + ", current best fitness: " + best);
+
+            checkTermination(currentBestFitness);
+            if (level > 0 && hasPlateaued(currentBestFitness)) {
+                promoteLevel();
+            }
+            checkpointIfDue();
+        }
+    }
+
+    /**
+     * Evolves one island for a number of generations without touching any other island.
+     * On return the island is fully scored and ordered fittest first, as migration expects.
+     *
+     * @param from            First population index of the island (inclusive).
+     * @param to              Last population index of the island (exclusive).
+     * @param random          The island's own random stream; unused in deterministic mode.
+     * @param firstGeneration Generation count before the epoch.
+     * @param generations     Number of generations to run.
+     * @param scored          Whether the island's individuals already have a valid fitness.
+     */
+    private void evolveIsland(int from, int to, RandomGenerator random, int firstGeneration, int generations, boolean scored) {
+        int size = to - from;
+        int eliteCount = (int) (size * 0.1);
+        if (!scored) {
+            for (int i = from; i < to; i++) {
+                scoreIndividual(population[i]);
+            }
+        }
+
+        Selection selector = new Selection(size, selectionStrategy);
+        for (int g = 0; g < generations; g++) {
+            int generation = firstGeneration + g + 1;
+            int[] elites = loadSelection(selector, from, eliteCount, streamOr(random, RandomStreams.SELECTION, generation, from));
+            Individual[] next = new Individual[size];
+            for (int i = 0; i < eliteCount; i++) {
+                next[i] = population[elites[i]];
+            }
+            breedRange(selector, from, next, eliteCount, size, generation, random, this::scoreIndividual);
+            System.arraycopy(next, 0, population, from, size);
+        }
+        // Once per epoch; migration takes migrants from the front and overwrites the back
+        Arrays.sort(population, from, to, Comparator.comparingDouble(Individual::getFitness).reversed());
+    }
+
+    /**
+     * Copies the best individuals of every island over the worst individuals of its destination.
+     * All migrants are chosen before any are placed, so an island never re-sends arrivals.
+     */
+    private void migrate() {
+        Individual[][] migrants = new Individual[islandCount][];
+        for (int i = 0; i < islandCount; i++) {
+            int from = islandStart(i);
+            int count = Math.min(migrantCount, islandStart(i + 1) - from);
+            migrants[i] = new Individual[count];
+            for (int m = 0; m < count; m++) {
+                migrants[i][m] = population[from + m].copy();
+            }
+        }
+
+        RandomGenerator random = streamOr(rand, RandomStreams.MIGRATION, generationCount, 0);
+        for (int i = 0; i < islandCount; i++) {
+            int destination;
+            if (migrationTopology == MigrationTopology.RING) {
+                destination = (i + 1) % islandCount;
+            } else {
+                destination = (i + 1 + random.nextInt(islandCount - 1)) % islandCount;
+            }
+            int end = islandStart(destination + 1);
+            int count = Math.min(migrants[i].length, end - islandStart(destination));
+            for (int m = 0; m < count; m++) {
+                population[end - 1 - m] = migrants[i][m];
+            }
+        }
+    }
+
+    /**
+     * Gets the first population index of an island. Islands differ in size by at most one.
+     *
+     * @param island Index of the island, or the island count for the end of the population.
+     * @return Index of the island's first individual.
+     */
+    private int islandStart(int island) {
+        return (int) ((long) island * populationSize / islandCount);
+    }
+
+    /**
+     * Runs one generation on the flat stores. Breeding writes into the spare store with bulk
+     * array copies, which then becomes the current one.
+     */
+    private void nextGenerationFlat() {
+        int imageWidth = target.getWidth();
+        int imageHeight = target.getHeight();
+
+        evaluateFitnessFlat();
+        recordFitnessStatistics();
+        long breedingStart = System.nanoTime();
+
+        // Retain top 10% as elites, fittest first
+        int eliteCount = (int) (populationSize * 0.1);
+        for (int i = 0; i < populationSize; i++) {
+            selection.setFitness(i, store.getFitness(i));
+        }
+        int[] elites = selection.topIndices(eliteCount);
+        for (int i = 0; i < eliteCount; i++) {
+            store.copyTo(elites[i], nextStore, i);
+        }
+        selection.prepare(populationSize - eliteCount, streamOr(rand, RandomStreams.SELECTION, generationCount, 0));
+
+        // Generate the rest of the new population
+        for (int offspringIndex = eliteCount; offspringIndex < populationSize; offspringIndex += 2) {
+            RandomGenerator random = streamOr(rand, RandomStreams.BREEDING, generationCount, offspringIndex);
+            int parent1 = selection.select(random, offspringIndex);
+            int parent2 = selection.select(random, offspringIndex + 1);
+
+            // Single-point crossover based on polygons
+            int crossoverPoint = random.nextInt(numPolygons);
+            store.crossover(parent1, parent2, nextStore, offspringIndex, crossoverPoint);
+            if (offspringIndex + 1 < populationSize) {
+                store.crossover(parent2, parent1, nextStore, offspringIndex + 1, crossoverPoint);
+            }
+
+            for (int child = offspringIndex; child < Math.min(offspringIndex + 2, populationSize); child++) {
+                // Mutation
+                if (random.nextDouble() < mutationRate) {
+                    nextStore.mutate(child, imageWidth, imageHeight, random);
+                }
+            }
+        }
+
+        // Replace old population with new population
+        PopulationStore previous = store;
+        store = nextStore;
+        nextStore = previous;
+        metrics.recordBreeding(System.nanoTime() - breedingStart);
+    }
+
+    /**
+     * Gathers the fitness of the scored current population into the metrics.
+     */
+    private void recordFitnessStatistics() {
+        if (fitnessStatistics == null) {
+            fitnessStatistics = new double[populationSize];
+        }
+        for (int i = 0; i < populationSize; i++) {
+            fitnessStatistics[i] = store != null ? store.getFitness(i) : population[i].getFitness();
+        }
+        metrics.recordFitness(generationCount, fitnessStatistics, populationSize);
+    }
+
+    /**
+     * Marks the start of one or more generations for the metrics and the flight recorder.
+     *
+     * @return The generation event, already begun.
+     */
+    private GenerationEvent beginGenerations() {
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        generationStartNanos = System.nanoTime();
+        generationStartEvaluations = evaluations.sum();
+        generationStartAllocated = EngineMetrics.allocatedBytes();
+        return event;
+    }
+
+    /**
+     * Records the generations since {@link #beginGenerations()} in the metrics and commits the
+     * generation event if it is being recorded.
+     *
+     * @param event       The event returned by {@link #beginGenerations()}.
+     * @param generations Number of generations run since.
+     */
+    private void endGenerations(GenerationEvent event, int generations) {
+        long nanos = System.nanoTime() - generationStartNanos;
+        long computed = evaluations.sum() - generationStartEvaluations;
+        long allocated = generationStartAllocated >= 0 ? EngineMetrics.allocatedBytes() - generationStartAllocated : -1;
+        metrics.recordGenerations(generations, nanos, computed, allocated);
+        event.end();
+        if (event.shouldCommit()) {
+            event.generation = generationCount;
+            event.generations = generations;
+            event.evaluations = computed;
+            event.bestFitness = metrics.getBestFitness();
+            event.meanFitness = metrics.getMeanFitness();
+            event.fitnessStdDev = metrics.getFitnessStdDev();
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    /**
+     * Checks whether the best fitness has stopped improving at the current resolution level.
+     * The check runs once every {@code plateauGenerations} generations.
+     *
+     * @param bestFitness Best fitness of the latest generation.
+     * @return True if the level should be left for the next finer one.
+     */
+    private boolean hasPlateaued(double bestFitness) {
+        if (generationCount - plateauCheckGeneration < plateauGenerations) {
+            return false;
+        }
+        boolean plateaued = bestFitness - plateauCheckFitness < PLATEAU_IMPROVEMENT_RATIO * plateauCheckFitness;
+        plateauCheckGeneration = generationCount;
+        plateauCheckFitness = bestFitness;
+        return plateaued;
+    }
+
+    /**
+     * Moves evolution to the next finer pyramid level.
+     */
+    private void promoteLevel() {
+        TargetImage previous = target;
+        level--;
+        target = pyramid[level];
+        rescaleFrom(previous);
+        logger.info("Promoted to resolution " + target.getWidth() + "x" + target.getHeight());
+    }
+
+    /**
+     * Rescales the population and best individual after the working target changed size.
+     *
+     * @param previous The target the individuals were evolved against until now.
+     */
+    private void rescaleFrom(TargetImage previous) {
+        double scaleX = (double) target.getWidth() / previous.getWidth();
+        double scaleY = (double) target.getHeight() / previous.getHeight();
+        if (store != null) {
+            store.scale(scaleX, scaleY);
+        } else {
+            for (Individual individual : population) {
+                individual.scale(scaleX, scaleY);
+            }
+        }
+        if (incrementalEvaluator != null) {
+            incrementalEvaluator = new IncrementalEvaluator(target, renderBackend);
+        }
+        if (fitnessCache != null) {
+            fitnessCache.clear();
+        }
+
+        // Fitness values are not comparable across levels, so re-score the best one
+        Individual best = bestIndividual.get();
+        if (best != null) {
+            best = best.copy();
+            best.scale(scaleX, scaleY);
+            best.setFitness(calculateFitness(best));
+            bestIndividual.set(best);
+        }
+        plateauCheckGeneration = generationCount;
+        plateauCheckFitness = 0;
+        populationScored = false;
+    }
+
+    /**
+     * Scales an individual from the current resolution level to the full target resolution.
+     *
+     * @param individual The individual in current-level coordinates.
+     * @return The same individual at level 0, otherwise a rescaled copy.
+     */
+    private Individual toFullResolution(Individual individual) {
+        if (level == 0) {
+            return individual;
+        }
+        Individual scaled = individual.copy();
+        scaled.scale((double) outputWidth / target.getWidth(), (double) outputHeight / target.getHeight());
+        return scaled;
+    }
+
+    /**
+     * Enables coarse-to-fine evolution. The target is downscaled by half per level and evolution
+     * starts at the coarsest level, moving one level finer whenever the best fitness improves by
+     * less than 1% over {@code plateauGenerations} generations. Must be called before {@link #evolve(int)}.
+     *
+     * @param levels             Number of pyramid levels including full resolution; 1 disables the mode.
+     * @param plateauGenerations Generations between convergence checks on each level; at least 1 if {@code levels > 1}.
+     */
+    public void setMultiResolution(int levels, int plateauGenerations) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("At least one resolution level is required");
+        }
+        if (levels > 1 && plateauGenerations < 1) {
+            throw new IllegalArgumentException("Convergence checks need at least one generation between them");
+        }
+        TargetImage previous = target;
+        TargetImage fullResolution = pyramid.length > 0 ? pyramid[0] : target;
+        for (int i = 1; i < pyramid.length; i++) {
+            pyramid[i].close();
+        }
+        pyramid = new TargetImage[levels];
+        pyramid[0] = fullResolution;
+        for (int i = 1; i < levels; i++) {
+            pyramid[i] = placeTarget(pyramid[i - 1].halfSize());
+        }
+        this.plateauGenerations = plateauGenerations;
+        level = levels - 1;
+        target = pyramid[level];
+        rescaleFrom(previous);
+    }
+
+    /**
+     * Moves the target, and every pyramid level, into native memory so that even very large
+     * targets add nothing to the heap. The memory is released by {@link #shutdownExecutors()}.
+     * Needs the Maven profile {@code foreign} and {@code --add-modules jdk.incubator.foreign};
+     * without them the target stays on the heap. Must be called before {@link #evolve(int)}.
+     *
+     * @param offHeapTarget True to keep the target off-heap.
+     */
+    public void setOffHeapTarget(boolean offHeapTarget) {
+        this.offHeapTarget = offHeapTarget;
+        if (!offHeapTarget) {
+            return;
+        }
+        TargetImage previous = target;
+        if (pyramid.length == 0) {
+            target = placeTarget(target);
+        } else {
+            for (int i = 0; i < pyramid.length; i++) {
+                pyramid[i] = placeTarget(pyramid[i]);
+            }
+            target = pyramid[level];
+        }
+        if (target != previous && incrementalEvaluator != null) {
+            incrementalEvaluator = new IncrementalEvaluator(target, renderBackend);
+        }
+    }
+
+    /**
+     * Moves a target off-heap if off-heap targets are enabled.
+     *
+     * @param image The target to place.
+     * @return The target to use; heap copies are left to the garbage collector.
+     */
+    private TargetImage placeTarget(TargetImage image) {
+        return offHeapTarget ? image.toOffHeap() : image;
+    }
+
+    /**
+     * Selects how the population is stored. The flat layout always scores with the fused kernel.
+     * Must be called before {@link #evolve(int)}.
+     *
+     * @param layout The population layout to use.
+     */
+    public void setPopulationLayout(PopulationLayout layout) {
+        if (layout == PopulationLayout.FLAT && store == null) {
+            store = new PopulationStore(populationSize, numPolygons);
+            nextStore = new PopulationStore(populationSize, numPolygons);
+            for (int i = 0; i < populationSize; i++) {
+                store.set(i, population[i]);
+            }
+        } else if (layout == PopulationLayout.OBJECTS && store != null) {
+            for (int i = 0; i < populationSize; i++) {
+                population[i] = store.toIndividual(i);
+                // Bred slots of the flat store keep stale fitness values until the next evaluation
+                population[i].invalidateFitness();
+            }
+            store = null;
+            nextStore = null;
+            populationScored = false;
+        }
+    }
+
+    /**
+     * Enables pipelined generations, where offspring are scored on the worker pool while the
+     * rest of the generation is still being bred. Applies to the object population layout.
+     *
+     * @param pipelined True to overlap breeding with fitness evaluation.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+        this.populationScored = false;
+    }
+
+    /**
+     * Enables the island model: the population is split into independent sub-populations that
+     * each run on one worker and exchange their best individuals every {@code migrationInterval}
+     * generations. Uses the object population layout.
+     *
+     * @param islandCount       Number of islands; 1 disables the island model.
+     * @param migrationInterval Generations between migrations.
+     * @param migrantCount      Individuals each island sends per migration.
+     * @param topology          How destination islands are chosen.
+     */
+    public void setIslandModel(int islandCount, int migrationInterval, int migrantCount, MigrationTopology topology) {
+        if (islandCount < 1 || islandCount > populationSize) {
+            throw new IllegalArgumentException("Island count must be between 1 and the population size");
+        }
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("Migration interval must be at least one generation");
+        }
+        this.islandCount = islandCount;
+        this.migrationInterval = migrationInterval;
+        this.migrantCount = migrantCount;
+        this.migrationTopology = topology;
+    }
+
+    /**
+     * Switches from generational evolution to the steady-state engine, where workers breed,
+     * score and insert children continuously without a per-generation barrier or sort.
+     * Uses the object population layout and cannot be combined with the island model.
+     *
+     * @param steadyState True to use the steady-state engine.
+     */
+    public void setSteadyState(boolean steadyState) {
+        this.steadyState = steadyState;
+    }
+
+    /**
+     * Selects how parents are chosen. Elites are always the fittest 10%, and the steady-state
+     * engine always uses tournaments.
+     * Must be called before {@link #evolve(int)}.
+     *
+     * @param selectionStrategy The selection strategy to use.
+     */
+    public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+        this.selectionStrategy = selectionStrategy;
+        this.selection = new Selection(populationSize, selectionStrategy);
+    }
+
+    /**
+     * Enables memoizing fitness values by genome hash, so elites and offspring that were neither
+     * mutated nor changed by crossover skip rendering. The least recently used entries are evicted
+     * once the cache is full.
+     *
+     * @param capacity Maximum number of cached fitness values; 0 disables the cache.
+     */
+    public void setFitnessCacheSize(int capacity) {
+        this.fitnessCache = capacity > 0 ? new FitnessCache(capacity) : null;
+    }
+
+    /**
+     * Enables breeding offspring in parallel chunks on the worker pool.
+     *
+     * @param parallelBreeding True to breed on the worker pool.
+     */
+    public void setParallelBreeding(boolean parallelBreeding) {
+        this.parallelBreeding = parallelBreeding;
+    }
+
+    /**
+     * Seeds the master random generator and regenerates the initial population from it, making
+     * initialization and breeding reproducible. Must be called before {@link #evolve(int)}.
+     *
+     * @param seed The master seed.
+     */
+    public void setSeed(long seed) {
+        this.seedStreams = new RandomStreams(seed);
+        if (streams != null) {
+            streams = new RandomStreams(seed);
+        }
+        initializePopulation();
+        if (store != null) {
+            for (int i = 0; i < populationSize; i++) {
+                store.set(i, population[i]);
+            }
+        }
+        populationScored = false;
+    }
+
+    /**
+     * Enables deterministic mode: the same seed and configuration give bit-identical populations,
+     * best individuals and genome records whatever the thread pool size. Every draw comes from a
+     * counter-based stream keyed by the seed, the generation and the population slot, island or
+     * birth it belongs to. The best individual is updated in population order once a batch is
+     * scored instead of as workers finish, and the steady-state engine breeds in fixed-size batches.
+     * Time budgets, intermediate images, which are rate-limited by time, and the evaluation count
+     * with the fitness cache enabled still depend on timing. Regenerates the initial population,
+     * so it must be called before {@link #evolve(int)}.
+     *
+     * @param seed The run seed.
+     */
+    public void setDeterministic(long seed) {
+        this.streams = new RandomStreams(seed);
+        setSeed(seed);
+    }
+
+    /**
+     * Enables periodic checkpoints of the whole run state. Checkpoints are taken between
+     * generations and written by a background thread, and a stopped run writes one last
+     * checkpoint. The generators of every generation are derived from the run seed and the
+     * generation number, so taking a checkpoint draws nothing and leaves the run unchanged, and
+     * {@link #resumeFrom(String)} continues with exactly the same draws from the stored seed.
+     * Once a run ends for any other reason than {@link #stop()}, {@link #shutdownExecutors()}
+     * moves the file aside to the same name with {@code .done} appended.
+     *
+     * @param path     The checkpoint file, replaced atomically by every write.
+     * @param interval Generations between checkpoints; 0 disables checkpointing.
+     */
+    public void setCheckpointing(String path, int interval) {
+        if (checkpointWriter != null) {
+            checkpointWriter.close();
+            checkpointWriter = null;
+        }
+        this.checkpointInterval = interval;
+        if (interval > 0) {
+            checkpointWriter = new CheckpointWriter(Paths.get(path), populationSize, numPolygons);
+        }
+    }
+
+    /**
+     * Takes a checkpoint if the checkpoint interval has passed since the previous one.
+     */
+    private void checkpointIfDue() {
+        if (checkpointWriter != null && generationCount - lastCheckpointGeneration >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Takes a checkpoint unless the latest generation already has one, e.g. once the run ended.
+     */
+    private void checkpointIfBehind() {
+        if (checkpointWriter != null && generationCount > lastCheckpointGeneration) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Copies the run state into a free snapshot buffer and hands it to the checkpoint writer.
+     * Only called between generations, when no worker touches the population or the generators.
+     */
+    private void checkpoint() {
+        Checkpoint checkpoint = checkpointWriter.claim();
+        checkpoint.targetChecksum = targetChecksum();
+        checkpoint.configuration = describeConfiguration();
+        checkpoint.outputWidth = outputWidth;
+        checkpoint.outputHeight = outputHeight;
+        checkpoint.level = level;
+        checkpoint.levelWidth = target.getWidth();
+        checkpoint.levelHeight = target.getHeight();
+        checkpoint.generationCount = generationCount;
+
+        // Generators are derived from the seed and the generation, so nothing is drawn here
+        checkpoint.seed = seedStreams.getSeed();
+
+        checkpoint.populationScored = populationScored;
+        checkpoint.plateauCheckGeneration = plateauCheckGeneration;
+        checkpoint.plateauCheckFitness = plateauCheckFitness;
+        checkpoint.policyWindowGeneration = terminationPolicy.getWindowStartGeneration();
+        checkpoint.policyWindowFitness = terminationPolicy.getWindowStartFitness();
+        checkpoint.evaluations = evaluations.sum();
+        checkpoint.runNanos = getElapsedNanos();
+
+        for (int i = 0; i < populationSize; i++) {
+            if (store != null) {
+                // The flat layout re-scores every individual each generation
+                store.copyTo(i, checkpoint.population, i);
+                checkpoint.fitnessValid[i] = false;
+            } else {
+                checkpoint.population.set(i, population[i]);
+                checkpoint.fitnessValid[i] = population[i].isFitnessValid();
+            }
+        }
+        Individual best = bestIndividual.get();
+        checkpoint.hasBest = best != null;
+        if (best != null) {
+            checkpoint.best.set(0, best);
+        }
+
+        checkpointWriter.publish(checkpoint);
+        lastCheckpointGeneration = generationCount;
+    }
+
+    /**
+     * Gets the fingerprint of the full-resolution target, computing it on first use.
+     *
+     * @return CRC-32C of the target's channels.
+     */
+    private long targetChecksum() {
+        if (!targetChecksumKnown) {
+            targetChecksum = (pyramid.length > 0 ? pyramid[0] : target).checksum();
+            targetChecksumKnown = true;
+        }
+        return targetChecksum;
+    }
+
+    /**
+     * Describes the settings that shape a run, so a checkpoint is only resumed by a run that
+     * would have continued it the same way. Settings that only affect speed, such as the fitness
+     * cache or off-heap storage, are left out.
+     *
+     * @return One-line description of the configuration.
+     */
+    private String describeConfiguration() {
+        return "mutationRate=" + mutationRate
+                + " selection=" + selectionStrategy
+                + " layout=" + (store != null ? PopulationLayout.FLAT : PopulationLayout.OBJECTS)
+                + " steadyState=" + steadyState
+                + " pipelined=" + pipelined
+                + " parallelBreeding=" + parallelBreeding
+                + " islands=" + islandCount
+                + (islandCount > 1 ? "/" + migrationInterval + "/" + migrantCount + "/" + migrationTopology : "")
+                + " levels=" + Math.max(1, pyramid.length)
+                + (pyramid.length > 1 ? "/" + plateauGenerations : "")
+                + " evaluation=" + evaluationMode
+                + " renderer=" + renderBackend
+                + " deterministic=" + (streams != null ? String.valueOf(streams.getSeed()) : "off");
+    }
+
+    /**
+     * Restores a run from a checkpoint, so that evolving continues exactly as the checkpointed run
+     * did. Configure the algorithm as for the original run first, including the seed, population
+     * layout, multi-resolution levels, island model and termination policy; a checkpoint of
+     * another target or of a differently configured run is rejected. Outside deterministic
+     * mode the steady-state engine depends on thread timing, so it resumes from the same state but
+     * not with the same draws.
+     *
+     * @param path The checkpoint file.
+     * @throws IOException If the checkpoint cannot be read or does not match this configuration.
+     */
+    public void resumeFrom(String path) throws IOException {
+        Checkpoint checkpoint = Checkpoint.read(Paths.get(path));
+        if (checkpoint.populationSize != populationSize || checkpoint.numPolygons != numPolygons) {
+            throw new IOException("Checkpoint has " + checkpoint.populationSize + " individuals of "
+                    + checkpoint.numPolygons + " polygons, expected " + populationSize + " of " + numPolygons);
+        }
+        if (checkpoint.outputWidth != outputWidth || checkpoint.outputHeight != outputHeight) {
+            throw new IOException("Checkpoint was taken for a " + checkpoint.outputWidth + "x" + checkpoint.outputHeight + " target");
+        }
+        if (checkpoint.targetChecksum != targetChecksum()) {
+            throw new IOException("Checkpoint was taken for a different target image");
+        }
+        String configuration = describeConfiguration();
+        if (!checkpoint.configuration.equals(configuration)) {
+            throw new IOException("Checkpoint was taken with the configuration [" + checkpoint.configuration
+                    + "], this run has [" + configuration + "]");
+        }
+        TargetImage levelTarget = checkpoint.level == 0 ? (pyramid.length > 0 ? pyramid[0] : target)
+                : checkpoint.level < pyramid.length ? pyramid[checkpoint.level] : null;
+        if (levelTarget == null || levelTarget.getWidth() != checkpoint.levelWidth || levelTarget.getHeight() != checkpoint.levelHeight) {
+            throw new IOException("Checkpoint was taken at a resolution level this configuration does not have");
+        }
+
+        if (target != levelTarget) {
+            level = checkpoint.level;
+            target = levelTarget;
+            if (incrementalEvaluator != null) {
+                incrementalEvaluator = new IncrementalEvaluator(target, renderBackend);
+            }
+        }
+        if (fitnessCache != null) {
+            fitnessCache.clear();
+        }
+
+        generationCount = checkpoint.generationCount;
+        lastCheckpointGeneration = generationCount;
+        seedStreams = new RandomStreams(checkpoint.seed);
+        populationScored = checkpoint.populationScored;
+        plateauCheckGeneration = checkpoint.plateauCheckGeneration;
+        plateauCheckFitness = checkpoint.plateauCheckFitness;
+        terminationPolicy.restoreWindow(checkpoint.policyWindowGeneration, checkpoint.policyWindowFitness);
+        evaluations.reset();
+        evaluations.add(checkpoint.evaluations);
+        runNanos = checkpoint.runNanos;
+
+        for (int i = 0; i < populationSize; i++) {
+            population[i] = checkpoint.population.toIndividual(i);
+            if (!checkpoint.fitnessValid[i]) {
+                population[i].invalidateFitness();
+            }
+            if (store != null) {
+                checkpoint.population.copyTo(i, store, i);
+            }
+        }
+        bestIndividual.set(checkpoint.hasBest ? checkpoint.best.toIndividual(0) : null);
+        logger.info("Resumed from " + path + " at generation " + generationCount);
+    }
+
+    /**
+     * Selects how fitness is computed. Must be called before {@link #evolve(int)}.
+     *
+     * @param evaluationMode The evaluation strategy to use.
+     */
+    public void setEvaluationMode(EvaluationMode evaluationMode) {
+        this.evaluationMode = evaluationMode;
+        this.populationScored = false;
+        invalidatePopulationFitness();
+        if (fitnessCache != null) {
+            fitnessCache.clear();
+        }
+        if (evaluationMode == EvaluationMode.INCREMENTAL && incrementalEvaluator == null) {
+            incrementalEvaluator = new IncrementalEvaluator(target, renderBackend);
+        }
+    }
+
+    /**
+     * Selects the renderer used for fitness evaluation and intermediate images.
+     * Must be called before {@link #evolve(int)}.
+     *
+     * @param renderBackend The renderer to use.
+     */
+    public void setRenderBackend(RenderBackend renderBackend) {
+        this.renderBackend = renderBackend;
+        this.populationScored = false;
+        invalidatePopulationFitness();
+        if (fitnessCache != null) {
+            fitnessCache.clear();
+        }
+        if (incrementalEvaluator != null) {
+            incrementalEvaluator = new IncrementalEvaluator(target, renderBackend);
+        }
+    }
+
+    /**
+     * Marks every fitness in the object population as stale after the scoring method changed.
+     */
+    private void invalidatePopulationFitness() {
+        for (Individual individual : population) {
+            individual.invalidateFitness();
+        }
+    }
+
+    /**
+     * Enables or disables writing an image of the best individual as it improves.
+     *
+     * @param saveIntermediateImages True to save intermediate images.
+     */
+    public void setSaveIntermediateImages(boolean saveIntermediateImages) {
+        this.saveIntermediateImages = saveIntermediateImages;
+    }
+
+    /**
+     * Selects how improvements of the best individual are written. Genome output records every
+     * improvement in a couple of kilobytes; render any JSON record later with the {@code render}
+     * mode of the application.
+     *
+     * @param output The output kind; {@link IntermediateOutput#IMAGE} by default.
+     */
+    public void setIntermediateOutput(IntermediateOutput output) {
+        if (genomeRecorder != null) {
+            genomeRecorder.close();
+        }
+        genomeRecorder = output == IntermediateOutput.IMAGE ? null : new GenomeRecorder(output, outputWidth, outputHeight);
+    }
+
+    /**
+     * Limits how often intermediate images are written. Improvements found in between are not
+     * queued; only the newest best individual is written once the limit allows.
+     *
+     * @param minIntervalMillis Minimum time between two images; defaults to one second.
+     * @param minGenerations    Minimum number of generations between two images; defaults to one.
+     */
+    public void setIntermediateImageRate(long minIntervalMillis, int minGenerations) {
+        snapshotPublisher.setRate(minIntervalMillis, minGenerations);
+    }
+
+    /**
+     * Sets the criteria that end the run. The generational engine checks them after every
+     * generation, the steady-state engine after every {@code populationSize} births and the island
+     * model after every migration. Must be called before {@link #evolve(int)}.
+     *
+     * @param terminationPolicy The policy; it must not be shared with another algorithm.
+     */
+    public void setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = terminationPolicy;
+    }
+
+    /**
+     * Checks the termination policy after a generation and ends the run if a criterion is met.
+     *
+     * @param currentBestFitness Best fitness of the latest generation.
+     */
+    private void checkTermination(double currentBestFitness) {
+        generationBestFitness = currentBestFitness;
+        TerminationReason reason = terminationPolicy.check(generationCount, currentBestFitness, evaluations.sum(),
+                getElapsedNanos(), level == 0);
+        if (reason != null) {
+            terminate(reason);
+        }
+    }
+
+    /**
+     * Ends the run and reports why, together with its final statistics. Only the first reason counts.
+     *
+     * @param reason Why the run ends.
+     */
+    private synchronized void terminate(TerminationReason reason) {
+        running.set(false);
+        if (terminationReason != null) {
+            return;
+        }
+        terminationReason = reason;
+        double bestFitness = generationBestFitness;
+        logger.info(String.format("Evolution terminated (%s) after %d generations, %d evaluations, %.1f s; "
+                        + "best fitness: %s, MSE: %.2f%s",
+                reason, generationCount, evaluations.sum(), getElapsedNanos() / 1e9, bestFitness,
+                TerminationPolicy.toMse(bestFitness), level > 0 ? " at level " + level : ""));
+    }
+
+    /**
+     * Stops the evolution process.
+     */
+    public void stop() {
+        terminate(TerminationReason.STOPPED);
+    }
+
+    /**
+     * Gets why the run ended.
+     *
+     * @return The reason, or null while the run may go on.
+     */
+    public TerminationReason getTerminationReason() {
+        return terminationReason;
+    }
+
+    /**
+     * Gets the number of fitness evaluations computed so far, not counting cache hits.
+     *
+     * @return Evaluation count.
+     */
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Gets the live metrics of this run: timing and allocation histograms, throughput and the
+     * fitness distribution of the latest generation.
+     *
+     * @return The metrics, updated as the run goes on.
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the time spent evolving so far, excluding time between calls to {@link #advance(int)}.
+     *
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        long start = advanceStartNanos;
+        return runNanos + (start != 0 ? System.nanoTime() - start : 0);
+    }
+
+    /**
+     * Gets the width of the full-resolution target, which saved images use.
+     *
+     * @return Width in pixels.
+     */
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    /**
+     * Gets the height of the full-resolution target, which saved images use.
+     *
+     * @return Height in pixels.
+     */
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    /**
+     * Gets the number of generations run so far.
+     *
+     * @return Generation count.
+     */
+    public int getGenerationCount() {
+        return generationCount;
+    }
+
+    /**
+     * Gets the best individual found.
+     *
+     * @return Best Individual.
+     */
+    public Individual getBestIndividual() {
+        Individual best = bestIndividual.get();
+        return best != null ? toFullResolution(best) : null;
+    }
+
+    /**
+     * Shuts down the executor services gracefully. A shared worker pool is left running.
+     */
+    public void shutdownExecutors() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        try {
+            if (ownsExecutor && !executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+                if (!executor.awaitTermination(60, TimeUnit.SECONDS))
+                    logger.severe("Executor did not terminate.");
+            }
+        } catch (InterruptedException e) {
+            if (ownsExecutor) {
+                executor.shutdownNow();
+            }
+            Thread.currentThread().interrupt();
+        }
+
+        // Writes the newest pending intermediate image and any queued genome records
+        snapshotPublisher.close();
+        if (genomeRecorder != null) {
+            genomeRecorder.close();
+        }
+        if (checkpointWriter != null) {
+            checkpointWriter.close();
+            // Only a stopped run is meant to be resumed; a finished one would just end again
+            if (terminationReason != null && terminationReason != TerminationReason.STOPPED) {
+                checkpointWriter.retire();
+            }
+        }
+
+        // No evaluation can run any more, so native target memory can go
+        target.close();
+        for (TargetImage image : pyramid) {
+            image.close();
         }
     }
 }
@@ -0,0 +1,291 @@
+package com.martinszuc.polygen.ga;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One improvement of the best individual, stored as its polygons instead of as pixels. A record
+ * is a couple of kilobytes of text and can be rendered to a bitmap of any size later.
+ * <p>
+ * The JSON form is a single line,
+ * {@code {"generation":12,"fitness":1.2E-4,"width":400,"height":300,"polygons":[[argb,x0,y0,x1,y1,...],...]}},
+ * with the ARGB color as an unsigned 32-bit integer and vertices at the given resolution.
+ */
+public final class GenomeRecord {
+    private final int generation;
+    private final double fitness;
+    private final int width;
+    private final int height;
+    private final Individual individual;
+
+    /**
+     * Creates a record.
+     *
+     * @param generation Generation the individual was found in.
+     * @param fitness    Fitness of the individual when it was found.
+     * @param width      Width of the image its vertices refer to.
+     * @param height     Height of the image its vertices refer to.
+     * @param individual The individual; must not be modified afterwards.
+     */
+    public GenomeRecord(int generation, double fitness, int width, int height, Individual individual) {
+        this.generation = generation;
+        this.fitness = fitness;
+        this.width = width;
+        this.height = height;
+        this.individual = individual;
+    }
+
+    /**
+     * Gets the generation the individual was found in.
+     *
+     * @return Generation number.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the fitness of the individual when it was found.
+     *
+     * @return Fitness value.
+     */
+    public double getFitness() {
+        return fitness;
+    }
+
+    /**
+     * Gets the width of the image the vertices refer to.
+     *
+     * @return Width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the image the vertices refer to.
+     *
+     * @return Height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the recorded individual.
+     *
+     * @return The individual.
+     */
+    public Individual getIndividual() {
+        return individual;
+    }
+
+    /**
+     * Encodes the record as one line of JSON, without the line break.
+     *
+     * @return The JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(64 + individual.getPolygonArray().length * 48);
+        json.append("{\"generation\":").append(generation)
+                .append(",\"fitness\":").append(fitness)
+                .append(",\"width\":").append(width)
+                .append(",\"height\":").append(height)
+                .append(",\"polygons\":[");
+        PolygonData[] polygons = individual.getPolygonArray();
+        for (int p = 0; p < polygons.length; p++) {
+            PolygonData polygon = polygons[p];
+            json.append(p == 0 ? "[" : ",[").append(Integer.toUnsignedString(polygon.getARGB()));
+            for (int i = 0; i < polygon.getNumPoints(); i++) {
+                json.append(',').append(polygon.getX(i)).append(',').append(polygon.getY(i));
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Encodes the record as a standalone SVG image. Polygons are painted in order over a white
+     * background, as the renderers do.
+     *
+     * @return The SVG document.
+     */
+    public String toSvg() {
+        StringBuilder svg = new StringBuilder(160 + individual.getPolygonArray().length * 96);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height).append("\">\n")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>\n");
+        for (PolygonData polygon : individual.getPolygonArray()) {
+            int argb = polygon.getARGB();
+            svg.append("<polygon points=\"");
+            for (int i = 0; i < polygon.getNumPoints(); i++) {
+                svg.append(i == 0 ? "" : " ").append(polygon.getX(i)).append(',').append(polygon.getY(i));
+            }
+            svg.append("\" fill=\"#").append(String.format("%06x", argb & 0xFFFFFF))
+                    .append("\" fill-opacity=\"").append(String.format(Locale.ROOT, "%.3f", (argb >>> 24) / 255.0))
+                    .append("\"/>\n");
+        }
+        return svg.append("</svg>\n").toString();
+    }
+
+    /**
+     * Decodes a record written by {@link #toJson()}. Keys may appear in any order.
+     *
+     * @param line One JSON line.
+     * @return The decoded record.
+     * @throws IllegalArgumentException If the line is not a valid record.
+     */
+    public static GenomeRecord fromJson(String line) {
+        JsonScanner scanner = new JsonScanner(line);
+        int generation = 0;
+        double fitness = 0;
+        int width = -1;
+        int height = -1;
+        List<PolygonData> polygons = null;
+
+        scanner.expect('{');
+        do {
+            String key = scanner.string();
+            scanner.expect(':');
+            switch (key) {
+                case "generation" -> generation = (int) scanner.number();
+                case "fitness" -> fitness = scanner.number();
+                case "width" -> width = (int) scanner.number();
+                case "height" -> height = (int) scanner.number();
+                case "polygons" -> polygons = scanner.polygons();
+                default -> throw new IllegalArgumentException("Unknown key \"" + key + "\"");
+            }
+        } while (scanner.accept(','));
+        scanner.expect('}');
+
+        if (width <= 0 || height <= 0 || polygons == null) {
+            throw new IllegalArgumentException("Record is missing its size or polygons");
+        }
+        return new GenomeRecord(generation, fitness, width, height, new Individual(polygons.toArray(new PolygonData[0])));
+    }
+
+    /**
+     * Minimal reader for the fixed record structure: one object of numbers and a nested number array.
+     */
+    private static final class JsonScanner {
+        private final String text;
+        private int position;
+
+        /**
+         * Creates a scanner at the start of the text.
+         *
+         * @param text The JSON text.
+         */
+        JsonScanner(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Skips whitespace and consumes the given character if it comes next.
+         *
+         * @param c The expected character.
+         * @return True if it was consumed.
+         */
+        boolean accept(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the given character.
+         *
+         * @param c The expected character.
+         * @throws IllegalArgumentException If another character comes next.
+         */
+        void expect(char c) {
+            if (!accept(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at offset " + position);
+            }
+        }
+
+        /**
+         * Reads a string without escape sequences.
+         *
+         * @return The string contents.
+         */
+        String string() {
+            expect('"');
+            int end = text.indexOf('"', position);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated string at offset " + position);
+            }
+            String value = text.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        /**
+         * Reads a number.
+         *
+         * @return The number.
+         */
+        double number() {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length() && "+-.0123456789eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a number at offset " + start);
+            }
+        }
+
+        /**
+         * Advances past any whitespace.
+         */
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Reads the polygon array: one array per polygon holding the color and the vertices.
+         *
+         * @return The polygons.
+         */
+        List<PolygonData> polygons() {
+            List<PolygonData> polygons = new ArrayList<>();
+            expect('[');
+            if (accept(']')) {
+                return polygons;
+            }
+            do {
+                expect('[');
+                int argb = (int) (long) number();
+                List<Integer> coordinates = new ArrayList<>();
+                while (accept(',')) {
+                    coordinates.add((int) number());
+                }
+                expect(']');
+                int numPoints = coordinates.size() / 2;
+                if (coordinates.size() % 2 != 0 || numPoints < 3 || numPoints > PopulationStore.MAX_VERTICES) {
+                    throw new IllegalArgumentException("Invalid polygon with " + coordinates.size() + " coordinates");
+                }
+                int[] xPoints = new int[numPoints];
+                int[] yPoints = new int[numPoints];
+                for (int i = 0; i < numPoints; i++) {
+                    xPoints[i] = coordinates.get(2 * i);
+                    yPoints[i] = coordinates.get(2 * i + 1);
+                }
+                polygons.add(new PolygonData(xPoints, yPoints, numPoints, new Color(argb, true)));
+            } while (accept(','));
+            expect(']');
+            return polygons;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.martinszuc.polygen.ga;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Writes every improvement of the best individual as a {@link GenomeRecord} on a background
+ * thread, either as one SVG file per record or as lines appended to a JSON-lines file. Records are
+ * tiny, so unlike rasterized images none are coalesced; they pass through a bounded queue, and only
+ * if the disk falls more than a full queue behind are records dropped and counted.
+ */
+final class GenomeRecorder {
+    private static final Logger logger = Logger.getLogger(GenomeRecorder.class.getName());
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final String JSON_LINES_PATH = "output/genomes.jsonl";
+
+    private final IntermediateOutput format;
+    private final int outputWidth;
+    private final int outputHeight;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private volatile boolean closed;
+    private BufferedWriter jsonLines; // Opened by the recorder thread on the first JSON record
+    private int svgCount;             // Keeps SVG names unique within the same millisecond
+
+    /**
+     * An improvement waiting to be written.
+     */
+    private static final class Pending {
+        final Individual individual;
+        final int generation;
+        final double fitness;
+        final double scaleX;
+        final double scaleY;
+
+        /**
+         * Creates a pending record.
+         *
+         * @param individual The best individual; must not be modified afterwards.
+         * @param generation Generation it was found in.
+         * @param fitness    Its fitness.
+         * @param scaleX     Horizontal scale to the output resolution.
+         * @param scaleY     Vertical scale to the output resolution.
+         */
+        Pending(Individual individual, int generation, double fitness, double scaleX, double scaleY) {
+            this.individual = individual;
+            this.generation = generation;
+            this.fitness = fitness;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+    }
+
+    /**
+     * Creates a recorder. Its thread starts with the first offer.
+     *
+     * @param format       {@link IntermediateOutput#SVG} or {@link IntermediateOutput#JSON_LINES}.
+     * @param outputWidth  Width of the full-resolution target.
+     * @param outputHeight Height of the full-resolution target.
+     */
+    GenomeRecorder(IntermediateOutput format, int outputWidth, int outputHeight) {
+        if (format == IntermediateOutput.IMAGE) {
+            throw new IllegalArgumentException("Images are written by the snapshot publisher");
+        }
+        this.format = format;
+        this.outputWidth = outputWidth;
+        this.outputHeight = outputHeight;
+        this.thread = new Thread(this::run, "genome-recorder");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Queues an improvement. Never blocks; the record is dropped if the queue is full.
+     *
+     * @param individual The best individual; must not be modified afterwards.
+     * @param generation Generation it was found in.
+     * @param fitness    Its fitness.
+     * @param scaleX     Horizontal scale from the individual's resolution to the output resolution.
+     * @param scaleY     Vertical scale from the individual's resolution to the output resolution.
+     */
+    void offer(Individual individual, int generation, double fitness, double scaleX, double scaleY) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(new Pending(individual, generation, fitness, scaleX, scaleY))) {
+            dropped.increment();
+        }
+        if (started.compareAndSet(false, true)) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Writes all queued records and stops the recorder thread.
+     */
+    void close() {
+        closed = true;
+        if (started.get()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (dropped.sum() > 0) {
+            logger.warning(dropped.sum() + " genome records were dropped because the disk fell behind.");
+        }
+    }
+
+    /**
+     * Recorder loop: writes queued records until closed and drained.
+     */
+    private void run() {
+        try {
+            while (true) {
+                Pending pending = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (pending == null) {
+                    if (jsonLines != null) {
+                        jsonLines.flush();
+                    }
+                    if (closed && queue.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                write(pending);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warning("Could not write genome records: " + e.getMessage());
+        } finally {
+            if (jsonLines != null) {
+                try {
+                    jsonLines.close();
+                } catch (IOException e) {
+                    logger.warning("Could not close " + JSON_LINES_PATH + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one record at the output resolution.
+     *
+     * @param pending The improvement to write.
+     * @throws IOException If writing fails.
+     */
+    private void write(Pending pending) throws IOException {
+        ImageSaveEvent event = new ImageSaveEvent();
+        event.begin();
+        Individual individual = pending.individual;
+        if (pending.scaleX != 1.0 || pending.scaleY != 1.0) {
+            individual = individual.copy();
+            individual.scale(pending.scaleX, pending.scaleY);
+        }
+        GenomeRecord record = new GenomeRecord(pending.generation, pending.fitness, outputWidth, outputHeight, individual);
+        String path;
+
+        if (format == IntermediateOutput.JSON_LINES) {
+            if (jsonLines == null) {
+                Path file = Paths.get(JSON_LINES_PATH);
+                Files.createDirectories(file.getParent());
+                jsonLines = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            jsonLines.write(record.toJson());
+            jsonLines.newLine();
+            path = JSON_LINES_PATH;
+        } else {
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+            Path file = Paths.get(String.format("output/intermediate_gen_%05d_%s_%d.svg", pending.generation, timestamp, svgCount++));
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, record.toSvg(), StandardCharsets.UTF_8);
+            path = file.toString();
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.generation = pending.generation;
+            event.format = format.name();
+            event.path = path;
+            event.commit();
+        }
+    }
+}
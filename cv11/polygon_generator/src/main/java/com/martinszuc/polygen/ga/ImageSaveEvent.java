@@ -0,0 +1,24 @@
+package com.martinszuc.polygen.ga;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the writing of one intermediate image or genome record.
+ */
+@Name("com.martinszuc.polygen.ImageSave")
+@Label("Image Save")
+@Category("Polygon Generator")
+@Description("Intermediate output written by a background thread")
+final class ImageSaveEvent extends jdk.jfr.Event {
+    @Label("Generation")
+    int generation;
+
+    @Label("Format")
+    String format;
+
+    @Label("Path")
+    String path;
+}
@@ -0,0 +1,152 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.ImageUtils;
+import com.martinszuc.polygen.utils.RenderBackend;
+import com.martinszuc.polygen.utils.ScanlineRasterizer;
+import com.martinszuc.polygen.utils.TargetImage;
+
+import java.awt.Rectangle;
+
+/**
+ * Evaluates individuals by updating their cached render only inside the region that changed
+ * since the previous evaluation.
+ */
+class IncrementalEvaluator {
+    // Above this share of the image a full render is cheaper than clipping and diffing
+    private static final double FULL_RENDER_RATIO = 0.5;
+
+    private final TargetImage target;
+    private final int width;
+    private final int height;
+    private final RenderBackend renderBackend;
+
+    /**
+     * Creates an evaluator for the given target.
+     *
+     * @param target        The unpacked image to approximate.
+     * @param renderBackend Renderer used to refresh cached images.
+     */
+    IncrementalEvaluator(TargetImage target, RenderBackend renderBackend) {
+        this.target = target;
+        this.width = target.getWidth();
+        this.height = target.getHeight();
+        this.renderBackend = renderBackend;
+    }
+
+    /**
+     * Calculates the fitness of an individual, reusing its cached render when possible.
+     *
+     * @param individual The individual to evaluate.
+     * @return The fitness value.
+     */
+    double evaluate(Individual individual) {
+        RenderCache cache = individual.getRenderCache();
+        Rectangle dirty = individual.getDirtyRegion();
+
+        if (cache == null) {
+            cache = new RenderCache(width, height);
+            individual.setRenderCache(cache);
+            renderFull(individual, cache);
+        } else if (dirty != null) {
+            // Anti-aliased edges may bleed one pixel past the vertex bounds
+            Rectangle region = new Rectangle(dirty.x - 1, dirty.y - 1, dirty.width + 2, dirty.height + 2)
+                    .intersection(new Rectangle(0, 0, width, height));
+            if ((double) region.width * region.height > FULL_RENDER_RATIO * width * height) {
+                if (cache.isShared()) {
+                    // Everything is repainted, so the shared contents need not be copied
+                    cache = new RenderCache(width, height);
+                    individual.setRenderCache(cache);
+                }
+                renderFull(individual, cache);
+            } else if (!region.isEmpty()) {
+                if (cache.isShared()) {
+                    cache = cache.copy();
+                    individual.setRenderCache(cache);
+                }
+                renderRegion(individual, cache, region);
+            }
+        }
+
+        individual.clearDirtyRegion();
+        double mse = (double) cache.getTotalError() / ((double) width * height * 3);
+        return 1.0 / (mse + 1e-10);
+    }
+
+    /**
+     * Re-renders the whole image and recomputes every row error.
+     *
+     * @param individual The individual to render.
+     * @param cache      The cache to refresh.
+     */
+    private void renderFull(Individual individual, RenderCache cache) {
+        repaint(individual, cache, null);
+        long[] rowErrors = cache.getRowErrors();
+        long total = 0;
+        for (int y = 0; y < height; y++) {
+            rowErrors[y] = segmentError(cache.getPixels(), y, 0, width);
+            total += rowErrors[y];
+        }
+        cache.adjustTotalError(total - cache.getTotalError());
+    }
+
+    /**
+     * Re-renders a region of the image and updates the errors of the rows it spans.
+     *
+     * @param individual The individual to render.
+     * @param cache      The cache to refresh.
+     * @param region     Region to repaint, already clipped to the image.
+     */
+    private void renderRegion(Individual individual, RenderCache cache, Rectangle region) {
+        int[] pixels = cache.getPixels();
+        long[] rowErrors = cache.getRowErrors();
+        int x0 = region.x;
+        int x1 = region.x + region.width;
+        int y0 = region.y;
+        int y1 = region.y + region.height;
+
+        long delta = 0;
+        for (int y = y0; y < y1; y++) {
+            long before = segmentError(pixels, y, x0, x1);
+            rowErrors[y] -= before;
+            delta -= before;
+        }
+
+        repaint(individual, cache, region);
+
+        for (int y = y0; y < y1; y++) {
+            long after = segmentError(pixels, y, x0, x1);
+            rowErrors[y] += after;
+            delta += after;
+        }
+        cache.adjustTotalError(delta);
+    }
+
+    /**
+     * Repaints the cached canvas with the configured renderer.
+     *
+     * @param individual The individual to render.
+     * @param cache      The cache to repaint.
+     * @param clip       Region to repaint, or null for the whole image.
+     */
+    private void repaint(Individual individual, RenderCache cache, Rectangle clip) {
+        if (renderBackend == RenderBackend.SCANLINE) {
+            ScanlineRasterizer.renderInto(individual, cache.getPixels(), width, height, clip);
+        } else {
+            ImageUtils.renderInto(individual, cache.getCanvas(), clip);
+        }
+    }
+
+    /**
+     * Computes the squared RGB error of a horizontal run of pixels.
+     *
+     * @param pixels Candidate pixels.
+     * @param y      Row index.
+     * @param x0     First column (inclusive).
+     * @param x1     Last column (exclusive).
+     * @return Sum of squared channel differences.
+     */
+    private long segmentError(int[] pixels, int y, int x0, int x1) {
+        int offset = y * width + x0;
+        return target.squaredError(pixels, offset, offset, x1 - x0);
+    }
+}
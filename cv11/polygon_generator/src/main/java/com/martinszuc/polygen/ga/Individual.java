@@ -1,7 +1,9 @@
 package com.martinszuc.polygen.ga;
 
 import java.awt.*;
-import java.util.Random;
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents an individual in the population, consisting of multiple polygons.
@@ -9,7 +11,10 @@ import java.util.Random;
 public class Individual {
     private final PolygonData[] polygons;
     private double fitness;
-    private static final Random rand = new Random();
+    private boolean fitnessValid;          // Whether fitness still matches the polygons
+    private final BitSet changedPolygons;  // Indices of polygons changed since the last evaluation
+    private RenderCache renderCache; // Only populated in incremental evaluation mode
+    private Rectangle dirtyRegion;   // Area changed since the cached render, null if clean
 
     /**
      * Initializes an Individual with a specified number of polygons.
@@ -17,24 +22,65 @@ public class Individual {
      * @param numPolygons Number of polygons in the individual.
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @deprecated Draws from an unseeded generator, so the result cannot be reproduced; use
+     * {@link #Individual(int, int, int, RandomGenerator)}.
      */
+    @Deprecated
     public Individual(int numPolygons, int imageWidth, int imageHeight) {
+        this(numPolygons, imageWidth, imageHeight, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Initializes an Individual with a specified number of polygons drawn from the given generator.
+     *
+     * @param numPolygons Number of polygons in the individual.
+     * @param imageWidth  Width of the image.
+     * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
+     */
+    public Individual(int numPolygons, int imageWidth, int imageHeight, RandomGenerator random) {
         this.polygons = new PolygonData[numPolygons];
         for (int i = 0; i < numPolygons; i++) {
-            polygons[i] = generateRandomPolygonData(imageWidth, imageHeight);
+            polygons[i] = generateRandomPolygonData(imageWidth, imageHeight, random);
+            polygons[i].setOwner(this);
         }
+        this.changedPolygons = new BitSet(numPolygons);
+        changedPolygons.set(0, numPolygons);
+    }
+
+    /**
+     * Creates an Individual that takes ownership of the given polygons.
+     *
+     * @param polygons Array of PolygonData to use without copying.
+     */
+    Individual(PolygonData[] polygons) {
+        this.polygons = polygons;
+        for (PolygonData polygon : polygons) {
+            polygon.setOwner(this);
+        }
+        this.changedPolygons = new BitSet(polygons.length);
+        changedPolygons.set(0, polygons.length);
     }
 
     /**
      * Private constructor for creating a deep copy of an Individual.
      *
-     * @param polygons Array of PolygonData to copy.
+     * @param other The Individual to copy.
      */
-    private Individual(PolygonData[] polygons) {
-        this.polygons = new PolygonData[polygons.length];
-        for (int i = 0; i < polygons.length; i++) {
-            this.polygons[i] = polygons[i].copy(); // Utilize the copy method
+    private Individual(Individual other) {
+        this.polygons = new PolygonData[other.polygons.length];
+        for (int i = 0; i < other.polygons.length; i++) {
+            this.polygons[i] = other.polygons[i].copy(); // Utilize the copy method
+            this.polygons[i].setOwner(this);
         }
+        this.fitness = other.fitness;
+        this.fitnessValid = other.fitnessValid;
+        this.changedPolygons = (BitSet) other.changedPolygons.clone();
+        if (other.renderCache != null) {
+            other.renderCache.share(); // Copied lazily by the evaluator on the first re-render
+            this.renderCache = other.renderCache;
+        }
+        this.dirtyRegion = other.dirtyRegion != null ? new Rectangle(other.dirtyRegion) : null;
     }
 
     /**
@@ -42,23 +88,72 @@ public class Individual {
      *
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
      * @return A new PolygonData object with random data.
      */
-    private PolygonData generateRandomPolygonData(int imageWidth, int imageHeight) {
+    private PolygonData generateRandomPolygonData(int imageWidth, int imageHeight, RandomGenerator random) {
         // Create a temporary Polygon to generate random data
-        Polygon tempPolygon = new Polygon(imageWidth, imageHeight);
+        Polygon tempPolygon = new Polygon(imageWidth, imageHeight, random);
         return tempPolygon.getPolygonData();
     }
 
     /**
-     * Gets the array of PolygonData.
+     * Gets the polygons of the individual. The returned array is a copy, so replacing its
+     * entries does not affect the individual. Hot paths should use {@link #getPolygonCount()} and
+     * {@link #getPolygon(int)}, which do not allocate.
      *
-     * @return Array of PolygonData objects.
+     * @return Copy of the array of PolygonData objects.
      */
     public PolygonData[] getPolygons() {
+        return polygons.clone(); // Return a clone to preserve immutability
+    }
+
+    /**
+     * Gets the number of polygons without copying the polygon array.
+     *
+     * @return Number of polygons.
+     */
+    public int getPolygonCount() {
+        return polygons.length;
+    }
+
+    /**
+     * Gets a single polygon without copying the polygon array, for renderers walking every
+     * polygon on each evaluation.
+     *
+     * @param index Index of the polygon, in painting order.
+     * @return The polygon owned by this individual.
+     */
+    public PolygonData getPolygon(int index) {
+        return polygons[index];
+    }
+
+    /**
+     * Gets the live polygon array without copying it. Callers must not modify it.
+     *
+     * @return The individual's own array of PolygonData objects.
+     */
+    PolygonData[] getPolygonArray() {
         return polygons;
     }
 
+    /**
+     * Replaces the polygon at the given index and marks the area it covered as changed.
+     * Replacing a polygon with an identical one keeps the fitness valid.
+     *
+     * @param index   Index of the polygon to replace.
+     * @param polygon The new polygon.
+     */
+    public void setPolygon(int index, PolygonData polygon) {
+        if (!polygons[index].hasSameGenes(polygon)) {
+            markDirty(polygons[index]);
+            markDirty(polygon);
+            markChanged(index);
+        }
+        polygons[index] = polygon;
+        polygon.setOwner(this);
+    }
+
     /**
      * Gets the fitness of the individual.
      *
@@ -69,12 +164,42 @@ public class Individual {
     }
 
     /**
-     * Sets the fitness of the individual.
+     * Sets the fitness of the individual and marks it as valid for the current polygons.
      *
      * @param fitness Fitness value to set.
      */
     public void setFitness(double fitness) {
         this.fitness = fitness;
+        this.fitnessValid = true;
+        changedPolygons.clear();
+    }
+
+    /**
+     * Checks whether the fitness was computed for the current polygons.
+     *
+     * @return True if no polygon changed since the fitness was set.
+     */
+    public boolean isFitnessValid() {
+        return fitnessValid;
+    }
+
+    /**
+     * Marks the fitness as stale without changing any polygon, e.g. after the scoring method changed.
+     * The render cache is dropped as well, since its pixels and error belong to the old scoring.
+     */
+    void invalidateFitness() {
+        fitnessValid = false;
+        renderCache = null;
+        dirtyRegion = null;
+    }
+
+    /**
+     * Gets the indices of the polygons changed since the last evaluation. Must not be modified.
+     *
+     * @return Set of changed polygon indices.
+     */
+    BitSet getChangedPolygons() {
+        return changedPolygons;
     }
 
     /**
@@ -82,50 +207,204 @@ public class Individual {
      *
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @deprecated Draws from an unseeded generator, so the result cannot be reproduced; use
+     * {@link #mutate(int, int, RandomGenerator)}.
      */
+    @Deprecated
     public void mutate(int imageWidth, int imageHeight) {
-        for (PolygonData polygon : polygons) {
-            if (rand.nextDouble() < 0.1) { // 10% chance to mutate each polygon
-                mutatePolygon(polygon, imageWidth, imageHeight);
+        mutate(imageWidth, imageHeight, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Mutates the individual by mutating its polygons, drawing from the given generator.
+     * There is no shared generator, so every caller decides which stream the draws come from.
+     *
+     * @param imageWidth  Width of the image.
+     * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
+     */
+    public void mutate(int imageWidth, int imageHeight, RandomGenerator random) {
+        for (int i = 0; i < polygons.length; i++) {
+            if (random.nextDouble() < 0.1) { // 10% chance to mutate each polygon
+                mutatePolygon(i, imageWidth, imageHeight, random);
             }
         }
     }
 
     /**
-     * Mutates a single PolygonData object.
+     * Mutates a single PolygonData object. Draws that leave the polygon unchanged keep the fitness valid.
      *
-     * @param polygon     The PolygonData to mutate.
+     * @param index       Index of the polygon to mutate.
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
      */
-    private void mutatePolygon(PolygonData polygon, int imageWidth, int imageHeight) {
+    private void mutatePolygon(int index, int imageWidth, int imageHeight, RandomGenerator random) {
+        PolygonData polygon = polygons[index];
+
         // Decide whether to mutate vertices or color
-        if (rand.nextBoolean()) {
+        if (random.nextBoolean()) {
             // Mutate a random vertex
-            int vertexIndex = rand.nextInt(polygon.getNumPoints());
-            int[] xPoints = polygon.getXPoints();
-            int[] yPoints = polygon.getYPoints();
-
-            int dx = rand.nextInt(21) - 10; // Change between -10 and +10
-            int dy = rand.nextInt(21) - 10;
+            int vertexIndex = random.nextInt(polygon.getNumPoints());
 
-            xPoints[vertexIndex] = clamp(xPoints[vertexIndex] + dx, 0, imageWidth);
-            yPoints[vertexIndex] = clamp(yPoints[vertexIndex] + dy, 0, imageHeight);
+            int dx = random.nextInt(21) - 10; // Change between -10 and +10
+            int dy = random.nextInt(21) - 10;
+            int x = clamp(polygon.getX(vertexIndex) + dx, 0, imageWidth);
+            int y = clamp(polygon.getY(vertexIndex) + dy, 0, imageHeight);
+            if (x == polygon.getX(vertexIndex) && y == polygon.getY(vertexIndex)) {
+                return;
+            }
 
-            // Update polygon data
-            polygon.setXPoints(xPoints);
-            polygon.setYPoints(yPoints);
+            // Update polygon data in place
+            markDirty(polygon);
+            polygon.setVertex(vertexIndex, x, y);
+            markDirty(polygon);
+            markChanged(index);
         } else {
             // Mutate color
-            Color color = polygon.getColor();
-            int r = clamp(color.getRed() + rand.nextInt(21) - 10, 0, 255);
-            int g = clamp(color.getGreen() + rand.nextInt(21) - 10, 0, 255);
-            int b = clamp(color.getBlue() + rand.nextInt(21) - 10, 0, 255);
-            int a = clamp(color.getAlpha() + rand.nextInt(21) - 10, 0, 255);
-
-            // Update polygon data
-            polygon.setColor(new Color(r, g, b, a));
+            int argb = polygon.getARGB();
+            int r = clamp(((argb >> 16) & 0xFF) + random.nextInt(21) - 10, 0, 255);
+            int g = clamp(((argb >> 8) & 0xFF) + random.nextInt(21) - 10, 0, 255);
+            int b = clamp((argb & 0xFF) + random.nextInt(21) - 10, 0, 255);
+            int a = clamp((argb >>> 24) + random.nextInt(21) - 10, 0, 255);
+            int mutated = (a << 24) | (r << 16) | (g << 8) | b;
+            if (mutated == argb) {
+                return;
+            }
+
+            // Update polygon data in place
+            markDirty(polygon);
+            polygon.setARGB(mutated);
+            markChanged(index);
+        }
+    }
+
+    /**
+     * Scales all polygons to a different image resolution. Any cached render is dropped.
+     *
+     * @param scaleX Horizontal scale factor.
+     * @param scaleY Vertical scale factor.
+     */
+    public void scale(double scaleX, double scaleY) {
+        for (PolygonData polygon : polygons) {
+            polygon.scale(scaleX, scaleY);
+        }
+        renderCache = null;
+        dirtyRegion = null;
+        fitnessValid = false;
+        changedPolygons.set(0, polygons.length);
+    }
+
+    /**
+     * Applies a change made through one of the deprecated public {@link PolygonData} setters,
+     * marking the area the polygon covered before and after it as changed. A polygon that was
+     * since replaced in this individual is changed without affecting it.
+     *
+     * @param polygon The polygon being changed.
+     * @param change  The change to apply to it.
+     */
+    void updatePolygon(PolygonData polygon, Runnable change) {
+        int index = 0;
+        while (index < polygons.length && polygons[index] != polygon) {
+            index++;
+        }
+        if (index == polygons.length) {
+            change.run();
+            return;
+        }
+        markDirty(polygon);
+        change.run();
+        markDirty(polygon);
+        markChanged(index);
+    }
+
+    /**
+     * Records that a polygon changed, invalidating the fitness.
+     *
+     * @param index Index of the changed polygon.
+     */
+    private void markChanged(int index) {
+        changedPolygons.set(index);
+        fitnessValid = false;
+    }
+
+    /**
+     * Extends the changed region by the bounding box of a polygon.
+     *
+     * @param polygon Polygon whose pixels may have changed.
+     */
+    private void markDirty(PolygonData polygon) {
+        int minX = polygon.getX(0), maxX = minX;
+        int minY = polygon.getY(0), maxY = minY;
+        for (int i = 1; i < polygon.getNumPoints(); i++) {
+            minX = Math.min(minX, polygon.getX(i));
+            maxX = Math.max(maxX, polygon.getX(i));
+            minY = Math.min(minY, polygon.getY(i));
+            maxY = Math.max(maxY, polygon.getY(i));
         }
+
+        if (dirtyRegion == null) {
+            dirtyRegion = new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+        } else {
+            int x0 = Math.min(dirtyRegion.x, minX);
+            int y0 = Math.min(dirtyRegion.y, minY);
+            int x1 = Math.max(dirtyRegion.x + dirtyRegion.width, maxX + 1);
+            int y1 = Math.max(dirtyRegion.y + dirtyRegion.height, maxY + 1);
+            dirtyRegion.setBounds(x0, y0, x1 - x0, y1 - y0);
+        }
+    }
+
+    /**
+     * Computes a structural hash of the polygons, used to look up fitness values of unchanged genomes.
+     *
+     * @return 64-bit hash over every vertex count, vertex and color.
+     */
+    long genomeHash() {
+        long hash = polygons.length;
+        for (PolygonData polygon : polygons) {
+            int numPoints = polygon.getNumPoints();
+            hash = FitnessCache.combine(hash, numPoints);
+            for (int i = 0; i < numPoints; i++) {
+                hash = FitnessCache.combine(hash, polygon.getX(i));
+                hash = FitnessCache.combine(hash, polygon.getY(i));
+            }
+            hash = FitnessCache.combine(hash, polygon.getARGB());
+        }
+        return FitnessCache.finish(hash);
+    }
+
+    /**
+     * Gets the area changed since the last incremental evaluation.
+     *
+     * @return Changed region, or null if nothing changed.
+     */
+    Rectangle getDirtyRegion() {
+        return dirtyRegion;
+    }
+
+    /**
+     * Marks the cached render as up to date.
+     */
+    void clearDirtyRegion() {
+        dirtyRegion = null;
+    }
+
+    /**
+     * Gets the cached render used by incremental evaluation.
+     *
+     * @return The cache, or null if the individual was never evaluated incrementally.
+     */
+    RenderCache getRenderCache() {
+        return renderCache;
+    }
+
+    /**
+     * Sets the cached render used by incremental evaluation.
+     *
+     * @param renderCache The cache to attach.
+     */
+    void setRenderCache(RenderCache renderCache) {
+        this.renderCache = renderCache;
     }
 
     /**
@@ -143,9 +422,9 @@ public class Individual {
     /**
      * Creates a deep copy of the individual.
      *
-     * @return A new Individual object with copied polygons.
+     * @return A new Individual object with copied polygons and fitness state, sharing the render cache.
      */
     public Individual copy() {
-        return new Individual(this.polygons);
+        return new Individual(this);
     }
 }
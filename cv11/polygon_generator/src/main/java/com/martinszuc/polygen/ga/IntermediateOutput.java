@@ -0,0 +1,23 @@
+package com.martinszuc.polygen.ga;
+
+/**
+ * How the best individual is written out as it improves.
+ */
+public enum IntermediateOutput {
+    /**
+     * Rasterizes the best individual and encodes it in the output image format. Rate-limited, so
+     * only some improvements are written.
+     */
+    IMAGE,
+
+    /**
+     * Writes every improvement as a small SVG file of its polygons.
+     */
+    SVG,
+
+    /**
+     * Appends every improvement as one {@link GenomeRecord} JSON line to {@code output/genomes.jsonl},
+     * keeping the full improvement history in one file.
+     */
+    JSON_LINES
+}
@@ -0,0 +1,16 @@
+package com.martinszuc.polygen.ga;
+
+/**
+ * Which island receives the migrants of each island in the island model.
+ */
+public enum MigrationTopology {
+    /**
+     * Island {@code i} sends its migrants to island {@code i + 1}, the last one to the first.
+     */
+    RING,
+
+    /**
+     * Every island sends its migrants to a randomly chosen other island.
+     */
+    RANDOM
+}
@@ -1,7 +1,8 @@
 package com.martinszuc.polygen.ga;
 
 import java.awt.Color;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a polygon with vertices and color.
@@ -11,20 +12,33 @@ public class Polygon {
     private final int[] yPoints;
     private final int numPoints;
     private int r, g, b, a;
-    private static final Random rand = new Random();
 
     /**
      * Initializes a polygon with random vertices and color.
      *
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @deprecated Draws from an unseeded generator, so the result cannot be reproduced; use
+     * {@link #Polygon(int, int, RandomGenerator)}.
      */
+    @Deprecated
     public Polygon(int imageWidth, int imageHeight) {
+        this(imageWidth, imageHeight, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Initializes a polygon with random vertices and color drawn from the given generator.
+     *
+     * @param imageWidth  Width of the image.
+     * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
+     */
+    public Polygon(int imageWidth, int imageHeight, RandomGenerator random) {
         // Initialize with a random number of vertices between 3 and 6
-        this.numPoints = rand.nextInt(4) + 3;
+        this.numPoints = random.nextInt(4) + 3;
         this.xPoints = new int[numPoints];
         this.yPoints = new int[numPoints];
-        initializeRandom(imageWidth, imageHeight);
+        initializeRandom(imageWidth, imageHeight, random);
     }
 
     /**
@@ -56,16 +70,17 @@ public class Polygon {
      *
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
      */
-    private void initializeRandom(int imageWidth, int imageHeight) {
+    private void initializeRandom(int imageWidth, int imageHeight, RandomGenerator random) {
         for (int i = 0; i < numPoints; i++) {
-            xPoints[i] = rand.nextInt(imageWidth);
-            yPoints[i] = rand.nextInt(imageHeight);
+            xPoints[i] = random.nextInt(imageWidth);
+            yPoints[i] = random.nextInt(imageHeight);
         }
-        r = rand.nextInt(256);
-        g = rand.nextInt(256);
-        b = rand.nextInt(256);
-        a = rand.nextInt(256);
+        r = random.nextInt(256);
+        g = random.nextInt(256);
+        b = random.nextInt(256);
+        a = random.nextInt(256);
     }
 
     /**
@@ -97,21 +112,35 @@ public class Polygon {
      *
      * @param imageWidth  Width of the image.
      * @param imageHeight Height of the image.
+     * @deprecated Draws from an unseeded generator, so the result cannot be reproduced; use
+     * {@link #mutate(int, int, RandomGenerator)}.
      */
+    @Deprecated
     public void mutate(int imageWidth, int imageHeight) {
-        if (rand.nextBoolean()) {
+        mutate(imageWidth, imageHeight, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Mutates the polygon by randomly changing its vertices or color.
+     *
+     * @param imageWidth  Width of the image.
+     * @param imageHeight Height of the image.
+     * @param random      Source of randomness.
+     */
+    public void mutate(int imageWidth, int imageHeight, RandomGenerator random) {
+        if (random.nextBoolean()) {
             // Mutate a random vertex
-            int vertexIndex = rand.nextInt(numPoints);
-            int dx = rand.nextInt(21) - 10; // Change between -10 and +10
-            int dy = rand.nextInt(21) - 10;
+            int vertexIndex = random.nextInt(numPoints);
+            int dx = random.nextInt(21) - 10; // Change between -10 and +10
+            int dy = random.nextInt(21) - 10;
             xPoints[vertexIndex] = clamp(xPoints[vertexIndex] + dx, 0, imageWidth);
             yPoints[vertexIndex] = clamp(yPoints[vertexIndex] + dy, 0, imageHeight);
         } else {
             // Mutate color
-            r = clamp(r + rand.nextInt(21) - 10, 0, 255);
-            g = clamp(g + rand.nextInt(21) - 10, 0, 255);
-            b = clamp(b + rand.nextInt(21) - 10, 0, 255);
-            a = clamp(a + rand.nextInt(21) - 10, 0, 255);
+            r = clamp(r + random.nextInt(21) - 10, 0, 255);
+            g = clamp(g + random.nextInt(21) - 10, 0, 255);
+            b = clamp(b + random.nextInt(21) - 10, 0, 255);
+            a = clamp(a + random.nextInt(21) - 10, 0, 255);
         }
     }
 
@@ -1,15 +1,23 @@
 package com.martinszuc.polygen.ga;
 
 import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.Arrays;
 
 /**
  * Data holder for polygon coordinates and color.
+ * <p>
+ * Polygons are changed from within this package, through the {@link Individual} that owns them,
+ * so its fitness and dirty-region tracking always see the change. The deprecated public setters
+ * report to the owner for the same reason.
  */
 public class PolygonData {
     private int[] xPoints;
     private int[] yPoints;
     private final int numPoints;
-    private Color color;
+    private int argb;
+    private Color color; // Created lazily from argb for Java2D callers
+    private Individual owner; // Individual holding this polygon, told about public setter changes
 
     /**
      * Constructor to initialize polygon data.
@@ -24,9 +32,23 @@ public class PolygonData {
         this.xPoints = xPoints.clone();
         this.yPoints = yPoints.clone();
         this.numPoints = numPoints;
+        this.argb = color.getRGB();
         this.color = color;
     }
 
+    /**
+     * Private constructor for creating a deep copy without going through a Color object.
+     *
+     * @param other The PolygonData to copy.
+     */
+    private PolygonData(PolygonData other) {
+        this.xPoints = other.xPoints.clone();
+        this.yPoints = other.yPoints.clone();
+        this.numPoints = other.numPoints;
+        this.argb = other.argb;
+        this.color = other.color;
+    }
+
     /**
      * Gets the array of x-coordinates.
      *
@@ -36,13 +58,68 @@ public class PolygonData {
         return xPoints.clone(); // Return a clone to preserve immutability
     }
 
+    /**
+     * Gets a single x-coordinate without copying the array.
+     *
+     * @param index Index of the vertex.
+     * @return The x-coordinate.
+     */
+    public int getX(int index) {
+        return xPoints[index];
+    }
+
+    /**
+     * Gets a single y-coordinate without copying the array.
+     *
+     * @param index Index of the vertex.
+     * @return The y-coordinate.
+     */
+    public int getY(int index) {
+        return yPoints[index];
+    }
+
+    /**
+     * Copies the x-coordinates into a caller-owned array, so renderers can reuse a buffer.
+     *
+     * @param destination Array receiving {@link #getNumPoints()} coordinates.
+     * @param offset      Index of the first coordinate in the destination.
+     */
+    public void copyXPoints(int[] destination, int offset) {
+        System.arraycopy(xPoints, 0, destination, offset, numPoints);
+    }
+
+    /**
+     * Copies the y-coordinates into a caller-owned array, so renderers can reuse a buffer.
+     *
+     * @param destination Array receiving {@link #getNumPoints()} coordinates.
+     * @param offset      Index of the first coordinate in the destination.
+     */
+    public void copyYPoints(int[] destination, int offset) {
+        System.arraycopy(yPoints, 0, destination, offset, numPoints);
+    }
+
+    /**
+     * Moves a single vertex in place.
+     *
+     * @param index Index of the vertex.
+     * @param x     New x-coordinate.
+     * @param y     New y-coordinate.
+     */
+    void setVertex(int index, int x, int y) {
+        xPoints[index] = x;
+        yPoints[index] = y;
+    }
+
     /**
      * Sets the array of x-coordinates.
      *
      * @param xPoints New array of x-coordinates.
+     * @deprecated Replace the polygon through {@link Individual#setPolygon(int, PolygonData)}.
      */
+    @Deprecated
     public void setXPoints(int[] xPoints) {
-        this.xPoints = xPoints.clone();
+        int[] points = xPoints.clone();
+        update(() -> this.xPoints = points);
     }
 
     /**
@@ -58,9 +135,12 @@ public class PolygonData {
      * Sets the array of y-coordinates.
      *
      * @param yPoints New array of y-coordinates.
+     * @deprecated Replace the polygon through {@link Individual#setPolygon(int, PolygonData)}.
      */
+    @Deprecated
     public void setYPoints(int[] yPoints) {
-        this.yPoints = yPoints.clone();
+        int[] points = yPoints.clone();
+        update(() -> this.yPoints = points);
     }
 
     /**
@@ -78,6 +158,9 @@ public class PolygonData {
      * @return AWT Color object.
      */
     public Color getColor() {
+        if (color == null) {
+            color = new Color(argb, true);
+        }
         return color;
     }
 
@@ -85,9 +168,97 @@ public class PolygonData {
      * Sets the color of the polygon.
      *
      * @param color New color to set.
+     * @deprecated Replace the polygon through {@link Individual#setPolygon(int, PolygonData)}.
      */
+    @Deprecated
     public void setColor(Color color) {
-        this.color = color;
+        update(() -> {
+            this.argb = color.getRGB();
+            this.color = color;
+        });
+    }
+
+    /**
+     * Gets the color as a packed int without creating a Color object.
+     *
+     * @return Color in ARGB order, alpha in the top byte.
+     */
+    public int getARGB() {
+        return argb;
+    }
+
+    /**
+     * Sets the color from a packed int without creating a Color object.
+     *
+     * @param argb Color in ARGB order, alpha in the top byte.
+     */
+    void setARGB(int argb) {
+        this.argb = argb;
+        this.color = null;
+    }
+
+    /**
+     * Checks whether another polygon has exactly the same vertices and color.
+     *
+     * @param other The polygon to compare with.
+     * @return True if both would render identically.
+     */
+    public boolean hasSameGenes(PolygonData other) {
+        return numPoints == other.numPoints && argb == other.argb
+                && Arrays.equals(xPoints, 0, numPoints, other.xPoints, 0, numPoints)
+                && Arrays.equals(yPoints, 0, numPoints, other.yPoints, 0, numPoints);
+    }
+
+    /**
+     * Computes the axis-aligned bounding box of the polygon's vertices.
+     *
+     * @return Bounding rectangle covering every vertex.
+     */
+    public Rectangle getBounds() {
+        int minX = xPoints[0], maxX = xPoints[0];
+        int minY = yPoints[0], maxY = yPoints[0];
+        for (int i = 1; i < numPoints; i++) {
+            minX = Math.min(minX, xPoints[i]);
+            maxX = Math.max(maxX, xPoints[i]);
+            minY = Math.min(minY, yPoints[i]);
+            maxY = Math.max(maxY, yPoints[i]);
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Scales every vertex, e.g. when moving between image resolutions.
+     *
+     * @param scaleX Horizontal scale factor.
+     * @param scaleY Vertical scale factor.
+     */
+    void scale(double scaleX, double scaleY) {
+        for (int i = 0; i < numPoints; i++) {
+            xPoints[i] = (int) Math.round(xPoints[i] * scaleX);
+            yPoints[i] = (int) Math.round(yPoints[i] * scaleY);
+        }
+    }
+
+    /**
+     * Records the individual holding this polygon. Copies start without an owner.
+     *
+     * @param owner The owning individual.
+     */
+    void setOwner(Individual owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Applies a change through the owning individual, if any, so it sees the polygon change.
+     *
+     * @param change The change to apply.
+     */
+    private void update(Runnable change) {
+        if (owner != null) {
+            owner.updatePolygon(this, change);
+        } else {
+            change.run();
+        }
     }
 
     /**
@@ -96,6 +267,6 @@ public class PolygonData {
      * @return A new PolygonData object with copied data.
      */
     public PolygonData copy() {
-        return new PolygonData(this.xPoints, this.yPoints, this.numPoints, this.color);
+        return new PolygonData(this);
     }
 }
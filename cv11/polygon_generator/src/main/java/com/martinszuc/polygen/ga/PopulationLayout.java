@@ -0,0 +1,18 @@
+package com.martinszuc.polygen.ga;
+
+/**
+ * How the generational engine stores its population.
+ */
+public enum PopulationLayout {
+    /**
+     * One {@link Individual} object per member, each holding its own {@link PolygonData} objects.
+     */
+    OBJECTS,
+
+    /**
+     * A pair of {@link PopulationStore}s holding every attribute in flat primitive arrays.
+     * Individuals are always scored with the fused kernel and are only materialized as
+     * objects when a new best is found.
+     */
+    FLAT
+}
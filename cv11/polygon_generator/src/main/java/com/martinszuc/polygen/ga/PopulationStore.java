@@ -0,0 +1,290 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.ScanlineRasterizer;
+import com.martinszuc.polygen.utils.TargetImage;
+
+import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Flat structure-of-arrays storage for a whole population. Every attribute lives in one contiguous
+ * primitive array indexed by individual and polygon, so copying an individual is a handful of
+ * {@link System#arraycopy} calls and breeding allocates nothing.
+ * <p>
+ * Polygon {@code p} of individual {@code i} has slot {@code i * numPolygons + p}; its vertices occupy
+ * {@link #MAX_VERTICES} entries of the coordinate arrays starting at {@code slot * MAX_VERTICES}.
+ */
+public class PopulationStore {
+    public static final int MAX_VERTICES = 6;
+
+    private final int size;
+    private final int numPolygons;
+    private final int[] xPoints;
+    private final int[] yPoints;
+    private final int[] vertexCounts;
+    private final int[] colors; // ARGB
+    private final double[] fitness;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param size        Number of individuals.
+     * @param numPolygons Number of polygons per individual.
+     */
+    public PopulationStore(int size, int numPolygons) {
+        this.size = size;
+        this.numPolygons = numPolygons;
+        this.xPoints = new int[size * numPolygons * MAX_VERTICES];
+        this.yPoints = new int[size * numPolygons * MAX_VERTICES];
+        this.vertexCounts = new int[size * numPolygons];
+        this.colors = new int[size * numPolygons];
+        this.fitness = new double[size];
+    }
+
+    /**
+     * Gets the number of individuals.
+     *
+     * @return Population size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the fitness of an individual.
+     *
+     * @param index Index of the individual.
+     * @return Fitness value.
+     */
+    public double getFitness(int index) {
+        return fitness[index];
+    }
+
+    /**
+     * Sets the fitness of an individual.
+     *
+     * @param index   Index of the individual.
+     * @param fitness Fitness value to set.
+     */
+    public void setFitness(int index, double fitness) {
+        this.fitness[index] = fitness;
+    }
+
+    /**
+     * Copies one individual, possibly into another store with the same polygon count.
+     *
+     * @param source      Index of the individual to copy.
+     * @param destination Store receiving the copy.
+     * @param target      Index of the copy in the destination store.
+     */
+    public void copyTo(int source, PopulationStore destination, int target) {
+        copyPolygons(source, 0, destination, target, numPolygons);
+        destination.fitness[target] = fitness[source];
+    }
+
+    /**
+     * Single-point crossover: the child takes the first parent's polygons up to the crossover
+     * point and the second parent's polygons from there on.
+     *
+     * @param parent1        Index of the first parent in this store.
+     * @param parent2        Index of the second parent in this store.
+     * @param destination    Store receiving the offspring.
+     * @param child          Index of the child in the destination.
+     * @param crossoverPoint First polygon taken from the second parent.
+     */
+    public void crossover(int parent1, int parent2, PopulationStore destination, int child, int crossoverPoint) {
+        copyPolygons(parent1, 0, destination, child, crossoverPoint);
+        copyPolygons(parent2, crossoverPoint, destination, child, numPolygons - crossoverPoint);
+    }
+
+    /**
+     * Mutates an individual in place with the same operators as {@link Individual#mutate(int, int, RandomGenerator)}.
+     *
+     * @param index       Index of the individual.
+     * @param imageWidth  Width of the image.
+     * @param imageHeight Height of the image.
+     * @param rand        Source of randomness.
+     */
+    public void mutate(int index, int imageWidth, int imageHeight, RandomGenerator rand) {
+        for (int slot = index * numPolygons; slot < (index + 1) * numPolygons; slot++) {
+            if (rand.nextDouble() >= 0.1) { // 10% chance to mutate each polygon
+                continue;
+            }
+            if (rand.nextBoolean()) {
+                // Mutate a random vertex
+                int v = slot * MAX_VERTICES + rand.nextInt(vertexCounts[slot]);
+                xPoints[v] = clamp(xPoints[v] + rand.nextInt(21) - 10, 0, imageWidth);
+                yPoints[v] = clamp(yPoints[v] + rand.nextInt(21) - 10, 0, imageHeight);
+            } else {
+                // Mutate color
+                int argb = colors[slot];
+                int r = clamp(((argb >> 16) & 0xFF) + rand.nextInt(21) - 10, 0, 255);
+                int g = clamp(((argb >> 8) & 0xFF) + rand.nextInt(21) - 10, 0, 255);
+                int b = clamp((argb & 0xFF) + rand.nextInt(21) - 10, 0, 255);
+                int a = clamp((argb >>> 24) + rand.nextInt(21) - 10, 0, 255);
+                colors[slot] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+
+    /**
+     * Scales every vertex of every individual, e.g. when moving between image resolutions.
+     *
+     * @param scaleX Horizontal scale factor.
+     * @param scaleY Vertical scale factor.
+     */
+    public void scale(double scaleX, double scaleY) {
+        for (int i = 0; i < xPoints.length; i++) {
+            xPoints[i] = (int) Math.round(xPoints[i] * scaleX);
+            yPoints[i] = (int) Math.round(yPoints[i] * scaleY);
+        }
+    }
+
+    /**
+     * Renders an individual straight from the flat arrays and scores it against the target.
+     *
+     * @param index  Index of the individual.
+     * @param target The unpacked target.
+     * @return Sum of squared channel differences.
+     */
+    public long renderAndScore(int index, TargetImage target) {
+        return ScanlineRasterizer.renderAndScore(xPoints, yPoints, MAX_VERTICES, vertexCounts, colors,
+                index * numPolygons, numPolygons, target);
+    }
+
+    /**
+     * Computes the same structural hash as {@link Individual#genomeHash()} straight from the flat arrays.
+     *
+     * @param index Index of the individual.
+     * @return 64-bit hash over every vertex count, vertex and color.
+     */
+    long genomeHash(int index) {
+        long hash = numPolygons;
+        for (int slot = index * numPolygons; slot < (index + 1) * numPolygons; slot++) {
+            int numPoints = vertexCounts[slot];
+            hash = FitnessCache.combine(hash, numPoints);
+            for (int v = slot * MAX_VERTICES; v < slot * MAX_VERTICES + numPoints; v++) {
+                hash = FitnessCache.combine(hash, xPoints[v]);
+                hash = FitnessCache.combine(hash, yPoints[v]);
+            }
+            hash = FitnessCache.combine(hash, colors[slot]);
+        }
+        return FitnessCache.finish(hash);
+    }
+
+    /**
+     * Stores an individual's polygons and fitness.
+     *
+     * @param index      Index of the slot to overwrite.
+     * @param individual The individual to store.
+     */
+    public void set(int index, Individual individual) {
+        PolygonData[] polygons = individual.getPolygonArray();
+        for (int p = 0; p < numPolygons; p++) {
+            int slot = index * numPolygons + p;
+            PolygonData polygon = polygons[p];
+            vertexCounts[slot] = polygon.getNumPoints();
+            polygon.copyXPoints(xPoints, slot * MAX_VERTICES);
+            polygon.copyYPoints(yPoints, slot * MAX_VERTICES);
+            colors[slot] = polygon.getARGB();
+        }
+        fitness[index] = individual.getFitness();
+    }
+
+    /**
+     * Materializes an individual as an {@link Individual} object, e.g. for saving or reporting.
+     *
+     * @param index Index of the individual.
+     * @return A new Individual with copied polygons and fitness.
+     */
+    public Individual toIndividual(int index) {
+        PolygonData[] polygons = new PolygonData[numPolygons];
+        for (int p = 0; p < numPolygons; p++) {
+            int slot = index * numPolygons + p;
+            int numPoints = vertexCounts[slot];
+            int[] xs = new int[numPoints];
+            int[] ys = new int[numPoints];
+            System.arraycopy(xPoints, slot * MAX_VERTICES, xs, 0, numPoints);
+            System.arraycopy(yPoints, slot * MAX_VERTICES, ys, 0, numPoints);
+            polygons[p] = new PolygonData(xs, ys, numPoints, new Color(colors[slot], true));
+        }
+        Individual individual = new Individual(polygons);
+        individual.setFitness(fitness[index]);
+        return individual;
+    }
+
+    /**
+     * Writes an individual's polygons and fitness without the padding of unused vertex slots.
+     *
+     * @param index Index of the individual.
+     * @param out   Destination stream.
+     * @throws IOException If writing fails.
+     */
+    void write(int index, DataOutput out) throws IOException {
+        out.writeDouble(fitness[index]);
+        for (int slot = index * numPolygons; slot < (index + 1) * numPolygons; slot++) {
+            out.writeByte(vertexCounts[slot]);
+            for (int v = slot * MAX_VERTICES; v < slot * MAX_VERTICES + vertexCounts[slot]; v++) {
+                out.writeInt(xPoints[v]);
+                out.writeInt(yPoints[v]);
+            }
+            out.writeInt(colors[slot]);
+        }
+    }
+
+    /**
+     * Reads an individual written by {@link #write(int, DataOutput)}.
+     *
+     * @param index Index of the slot to overwrite.
+     * @param in    Source stream.
+     * @throws IOException If reading fails or a polygon has an invalid vertex count.
+     */
+    void read(int index, DataInput in) throws IOException {
+        fitness[index] = in.readDouble();
+        for (int slot = index * numPolygons; slot < (index + 1) * numPolygons; slot++) {
+            int numPoints = in.readUnsignedByte();
+            if (numPoints < 3 || numPoints > MAX_VERTICES) {
+                throw new IOException("Invalid vertex count " + numPoints);
+            }
+            vertexCounts[slot] = numPoints;
+            for (int v = slot * MAX_VERTICES; v < slot * MAX_VERTICES + numPoints; v++) {
+                xPoints[v] = in.readInt();
+                yPoints[v] = in.readInt();
+            }
+            colors[slot] = in.readInt();
+        }
+    }
+
+    /**
+     * Copies a run of polygons of one individual into another individual.
+     *
+     * @param source       Index of the source individual.
+     * @param firstPolygon Index of the first polygon to copy.
+     * @param destination  Store receiving the polygons.
+     * @param target       Index of the destination individual.
+     * @param count        Number of polygons to copy.
+     */
+    private void copyPolygons(int source, int firstPolygon, PopulationStore destination, int target, int count) {
+        int from = source * numPolygons + firstPolygon;
+        int to = target * numPolygons + firstPolygon;
+        System.arraycopy(xPoints, from * MAX_VERTICES, destination.xPoints, to * MAX_VERTICES, count * MAX_VERTICES);
+        System.arraycopy(yPoints, from * MAX_VERTICES, destination.yPoints, to * MAX_VERTICES, count * MAX_VERTICES);
+        System.arraycopy(vertexCounts, from, destination.vertexCounts, to, count);
+        System.arraycopy(colors, from, destination.colors, to, count);
+    }
+
+    /**
+     * Clamps a value between min and max.
+     *
+     * @param value The value to clamp.
+     * @param min   Minimum allowable value.
+     * @param max   Maximum allowable value.
+     * @return Clamped value.
+     */
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
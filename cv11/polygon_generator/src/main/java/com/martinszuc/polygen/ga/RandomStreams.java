@@ -0,0 +1,72 @@
+package com.martinszuc.polygen.ga;
+
+import java.util.SplittableRandom;
+
+/**
+ * Counter-based random streams for deterministic runs, and for the per-generation master
+ * generators of every run, so a checkpoint only has to store the seed. The stream for a key is a pure function
+ * of the run seed and the key, so it does not matter which thread draws it, in which order
+ * streams are created or how work is split into chunks. Keys name what the draws are for, the
+ * generation and the population slot or birth they belong to.
+ */
+final class RandomStreams {
+    // Purposes, so streams for different uses of the same slot never coincide
+    static final int INITIALIZATION = 1;
+    static final int BREEDING = 2;
+    static final int SELECTION = 3;
+    static final int MIGRATION = 4;
+    static final int STEADY_STATE = 5;
+    // Per-generation master and island generators outside deterministic mode
+    static final int MASTER = 6;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+
+    /**
+     * Creates the streams of one run.
+     *
+     * @param seed The run seed.
+     */
+    RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the run seed.
+     *
+     * @return The seed.
+     */
+    long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates the stream for a key. Every call returns a new generator positioned at the start
+     * of the same sequence.
+     *
+     * @param purpose    What the draws are for, one of the constants of this class.
+     * @param generation Generation the draws belong to.
+     * @param index      Population slot, island start or birth number the draws belong to.
+     * @return A generator owned by the caller.
+     */
+    SplittableRandom stream(int purpose, long generation, long index) {
+        long key = mix(seed + GOLDEN_GAMMA * purpose);
+        key = mix(key + GOLDEN_GAMMA * generation);
+        key = mix(key + GOLDEN_GAMMA * index);
+        return new SplittableRandom(key);
+    }
+
+    /**
+     * Scrambles the bits of a 64-bit value with the SplitMix64 finalizer, so nearby keys give
+     * unrelated seeds.
+     *
+     * @param z The value.
+     * @return The scrambled value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
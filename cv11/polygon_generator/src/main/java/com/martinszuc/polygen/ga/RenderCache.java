@@ -0,0 +1,113 @@
+package com.martinszuc.polygen.ga;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Cached render of an individual together with its per-row squared error against the target.
+ * Used by incremental evaluation to re-score only the rows and columns that changed.
+ * <p>
+ * Copies of an individual share its cache. Once shared, a cache is never written again: the
+ * evaluator gives an individual its own cache before re-rendering it.
+ */
+class RenderCache {
+    private final BufferedImage canvas;
+    private final int[] pixels;
+    private final long[] rowErrors;
+    private long totalError;
+    private volatile boolean shared;
+
+    /**
+     * Creates an empty cache for an image of the given size.
+     *
+     * @param width  Width of the image.
+     * @param height Height of the image.
+     */
+    RenderCache(int width, int height) {
+        this.canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.pixels = ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+        this.rowErrors = new long[height];
+    }
+
+    /**
+     * Private constructor for creating a deep copy of a cache.
+     *
+     * @param other The cache to copy.
+     */
+    private RenderCache(RenderCache other) {
+        this(other.canvas.getWidth(), other.canvas.getHeight());
+        System.arraycopy(other.pixels, 0, this.pixels, 0, other.pixels.length);
+        System.arraycopy(other.rowErrors, 0, this.rowErrors, 0, other.rowErrors.length);
+        this.totalError = other.totalError;
+    }
+
+    /**
+     * Gets the cached canvas.
+     *
+     * @return Canvas holding the last render.
+     */
+    BufferedImage getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Gets the ARGB pixels backing the canvas.
+     *
+     * @return Pixel array in row-major order.
+     */
+    int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Gets the squared error sum of each row.
+     *
+     * @return Array indexed by row.
+     */
+    long[] getRowErrors() {
+        return rowErrors;
+    }
+
+    /**
+     * Gets the squared error over the whole image.
+     *
+     * @return Sum of all row errors.
+     */
+    long getTotalError() {
+        return totalError;
+    }
+
+    /**
+     * Adds a difference to the total error after row errors have been updated.
+     *
+     * @param delta Change of the total error.
+     */
+    void adjustTotalError(long delta) {
+        totalError += delta;
+    }
+
+    /**
+     * Marks the cache as referenced by more than one individual, freezing its contents.
+     */
+    void share() {
+        shared = true;
+    }
+
+    /**
+     * Checks whether the cache is referenced by more than one individual.
+     *
+     * @return True if the cache must be copied before it is modified.
+     */
+    boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Creates a deep copy of the cache. The copy is not shared.
+     *
+     * @return A new RenderCache with copied pixels and errors.
+     */
+    RenderCache copy() {
+        return new RenderCache(this);
+    }
+}
@@ -0,0 +1,336 @@
+package com.martinszuc.polygen.ga;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Elite and parent selection over a primitive fitness array. Elites are found with a quickselect
+ * instead of sorting the whole population, and the proportionate strategies draw from a cumulative
+ * table built once per generation.
+ * <p>
+ * Usage per generation: fill the fitness values, take the elites, call {@link #prepare} and then
+ * {@link #select} for every parent. After {@link #prepare}, {@link #select} may be called from
+ * several threads at once.
+ */
+public class Selection {
+    private static final int TOURNAMENT_SIZE = 5;
+    // Ranges at most this long are finished with insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final int size;
+    private final double[] fitness;
+    private final int[] order;        // Index permutation rearranged by quickselect and sort
+    private final double[] cumulative; // Running weight sums, by position in wheelOrder
+    private final int[] wheelOrder;   // Individual at each cumulative table position
+    private final SelectionStrategy strategy;
+    private int[] samples = new int[0]; // Pre-drawn parents for stochastic universal sampling
+    private final AtomicInteger nextSample = new AtomicInteger();
+    private int pivotStart;  // First position holding the pivot fitness after partition
+    private int pivotEnd;    // Last position holding the pivot fitness after partition
+
+    /**
+     * Creates a selector for a population of a fixed size.
+     *
+     * @param size     Number of individuals.
+     * @param strategy How parents are chosen.
+     */
+    public Selection(int size, SelectionStrategy strategy) {
+        this.size = size;
+        this.fitness = new double[size];
+        this.order = new int[size];
+        this.cumulative = new double[size];
+        this.wheelOrder = new int[size];
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the number of individuals.
+     *
+     * @return Population size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets the fitness of an individual.
+     *
+     * @param index   Index of the individual.
+     * @param fitness Fitness value, must not be negative.
+     */
+    public void setFitness(int index, double fitness) {
+        this.fitness[index] = fitness;
+    }
+
+    /**
+     * Gets the fitness of an individual.
+     *
+     * @param index Index of the individual.
+     * @return Fitness value.
+     */
+    public double getFitness(int index) {
+        return fitness[index];
+    }
+
+    /**
+     * Finds the fittest individuals without sorting the rest of the population.
+     *
+     * @param count Number of individuals to return.
+     * @return Indices of the {@code count} fittest individuals, fittest first.
+     */
+    public int[] topIndices(int count) {
+        resetOrder();
+        if (count > 0 && count < size) {
+            quickselect(0, size - 1, count - 1);
+        }
+        sort(0, count - 1);
+        int[] top = new int[count];
+        System.arraycopy(order, 0, top, 0, count);
+        return top;
+    }
+
+    /**
+     * Builds the tables the strategy needs once the fitness values are final.
+     *
+     * @param draws  Number of parents the generation will select; used by stochastic universal sampling.
+     * @param random Source of randomness for the sampling offset.
+     */
+    public void prepare(int draws, RandomGenerator random) {
+        if (strategy == SelectionStrategy.TOURNAMENT) {
+            return;
+        }
+
+        if (strategy == SelectionStrategy.RANK) {
+            resetOrder();
+            sort(0, size - 1);
+            double total = 0;
+            for (int position = 0; position < size; position++) {
+                // order is fittest first, so the last position gets rank 1
+                wheelOrder[position] = order[position];
+                total += size - position;
+                cumulative[position] = total;
+            }
+        } else {
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                wheelOrder[i] = i;
+                total += fitness[i];
+                cumulative[i] = total;
+            }
+        }
+
+        if (strategy == SelectionStrategy.STOCHASTIC_UNIVERSAL) {
+            drawSamples(draws, random);
+        }
+    }
+
+    /**
+     * Selects one parent with the configured strategy.
+     *
+     * @param random Source of randomness, owned by the calling thread.
+     * @return Index of the selected individual.
+     */
+    public int select(RandomGenerator random) {
+        switch (strategy) {
+            case ROULETTE:
+            case RANK:
+                return spin(random.nextDouble() * cumulative[size - 1]);
+            case STOCHASTIC_UNIVERSAL:
+                if (samples.length == 0) {
+                    return random.nextInt(size);
+                }
+                return samples[Math.floorMod(nextSample.getAndIncrement(), samples.length)];
+            default:
+                int best = -1;
+                for (int i = 0; i < TOURNAMENT_SIZE; i++) {
+                    int candidate = random.nextInt(size);
+                    if (best < 0 || fitness[candidate] > fitness[best]) {
+                        best = candidate;
+                    }
+                }
+                return best;
+        }
+    }
+
+    /**
+     * Selects the parent for a numbered draw of the generation. Stochastic universal sampling
+     * returns the pre-drawn parent at that position instead of the next one, so parents do not
+     * depend on which breeding thread asks first. The other strategies draw as {@link #select(RandomGenerator)} does.
+     *
+     * @param random Source of randomness, owned by the calling thread.
+     * @param draw   Number of the draw within the generation; numbers wrap around the prepared draws.
+     * @return Index of the selected individual.
+     */
+    public int select(RandomGenerator random, int draw) {
+        if (strategy == SelectionStrategy.STOCHASTIC_UNIVERSAL && samples.length > 0) {
+            return samples[Math.floorMod(draw, samples.length)];
+        }
+        return select(random);
+    }
+
+    /**
+     * Takes all parents of the generation from evenly spaced pointers on the wheel and shuffles
+     * them, so consecutive draws are not biased towards low indices.
+     *
+     * @param draws  Number of parents to take.
+     * @param random Source of randomness.
+     */
+    private void drawSamples(int draws, RandomGenerator random) {
+        if (samples.length != draws) {
+            samples = new int[draws];
+        }
+        double step = cumulative[size - 1] / draws;
+        double pointer = random.nextDouble() * step;
+        int position = 0;
+        for (int i = 0; i < draws; i++, pointer += step) {
+            while (position < size - 1 && cumulative[position] <= pointer) {
+                position++;
+            }
+            samples[i] = wheelOrder[position];
+        }
+        for (int i = draws - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = samples[i];
+            samples[i] = samples[j];
+            samples[j] = swap;
+        }
+        nextSample.set(0);
+    }
+
+    /**
+     * Finds the wheel position whose cumulative weight first exceeds the pointer.
+     *
+     * @param pointer Point on the wheel, between 0 and the total weight.
+     * @return Index of the individual at that position.
+     */
+    private int spin(double pointer) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= pointer) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return wheelOrder[low];
+    }
+
+    /**
+     * Resets the index permutation to the identity.
+     */
+    private void resetOrder() {
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Rearranges {@code order} so that position {@code k} holds the individual that would be there
+     * if the range were sorted fittest first, with fitter individuals before it and the rest after.
+     *
+     * @param low  First position of the range (inclusive).
+     * @param high Last position of the range (inclusive).
+     * @param k    Position to settle.
+     */
+    private void quickselect(int low, int high, int k) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            partition(low, high);
+            if (k < pivotStart) {
+                high = pivotStart - 1;
+            } else if (k > pivotEnd) {
+                low = pivotEnd + 1;
+            } else {
+                return;
+            }
+        }
+        insertionSort(low, high);
+    }
+
+    /**
+     * Sorts a range of {@code order} fittest first.
+     *
+     * @param low  First position of the range (inclusive).
+     * @param high Last position of the range (inclusive).
+     */
+    private void sort(int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            partition(low, high);
+            int equalStart = pivotStart;
+            int equalEnd = pivotEnd;
+            // Recurse into the smaller side to bound the stack depth
+            if (equalStart - low < high - equalEnd) {
+                sort(low, equalStart - 1);
+                low = equalEnd + 1;
+            } else {
+                sort(equalEnd + 1, high);
+                high = equalStart - 1;
+            }
+        }
+        insertionSort(low, high);
+    }
+
+    /**
+     * Partitions a range of {@code order} three ways around a median-of-three pivot: fitter
+     * individuals first, then those with exactly the pivot fitness, then the rest. Runs of equal
+     * fitness, common once a population converges, end up in the middle and are never partitioned
+     * again. The middle run is left in {@link #pivotStart} and {@link #pivotEnd}.
+     *
+     * @param low  First position of the range (inclusive).
+     * @param high Last position of the range (inclusive).
+     */
+    private void partition(int low, int high) {
+        double first = fitness[order[low]];
+        double middle = fitness[order[(low + high) >>> 1]];
+        double last = fitness[order[high]];
+        double pivot = Math.max(Math.min(first, middle), Math.min(Math.max(first, middle), last));
+
+        int fitter = low;   // End of the fitter run
+        int next = low;     // Next position to classify
+        int weaker = high;  // Start of the weaker run, minus one
+        while (next <= weaker) {
+            double value = fitness[order[next]];
+            if (value > pivot) {
+                swap(fitter++, next++);
+            } else if (value < pivot) {
+                swap(next, weaker--);
+            } else {
+                next++;
+            }
+        }
+        pivotStart = fitter;
+        pivotEnd = weaker;
+    }
+
+    /**
+     * Sorts a short range of {@code order} fittest first.
+     *
+     * @param low  First position of the range (inclusive).
+     * @param high Last position of the range (inclusive).
+     */
+    private void insertionSort(int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            int index = order[i];
+            double value = fitness[index];
+            int j = i - 1;
+            while (j >= low && fitness[order[j]] < value) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * Swaps two positions of {@code order}.
+     *
+     * @param i First position.
+     * @param j Second position.
+     */
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+}
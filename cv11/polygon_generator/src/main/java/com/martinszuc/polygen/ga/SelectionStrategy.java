@@ -0,0 +1,27 @@
+package com.martinszuc.polygen.ga;
+
+/**
+ * How parents are chosen for breeding.
+ */
+public enum SelectionStrategy {
+    /**
+     * The fittest of five uniformly drawn individuals.
+     */
+    TOURNAMENT,
+
+    /**
+     * Fitness-proportionate selection: each individual is drawn with probability proportional to its fitness.
+     */
+    ROULETTE,
+
+    /**
+     * Each individual is drawn with probability proportional to its rank, the least fit having rank 1.
+     */
+    RANK,
+
+    /**
+     * Stochastic universal sampling: all parents of a generation are taken at once from evenly spaced
+     * points of the fitness-proportionate wheel, which keeps the spread of parents close to the expected one.
+     */
+    STOCHASTIC_UNIVERSAL
+}
@@ -0,0 +1,194 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.ImageUtils;
+import com.martinszuc.polygen.utils.RenderBackend;
+
+import java.awt.image.BufferedImage;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Saves intermediate images of the best individual on a background thread. Only the latest
+ * offered individual is kept: an offer replaces any snapshot that was not rendered yet, so the
+ * backlog is never more than one image no matter how fast the best improves. Images are written
+ * at most once per time interval and generation interval; the last pending snapshot is always
+ * written on {@link #close()}.
+ */
+final class SnapshotPublisher {
+    private static final Logger logger = Logger.getLogger(SnapshotPublisher.class.getName());
+
+    private final int outputWidth;
+    private final int outputHeight;
+    private final String outputFormat;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>(); // Not rendered yet
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Thread thread;
+    private volatile long minIntervalNanos;
+    private volatile int minGenerations;
+    private volatile boolean closed;
+    private boolean saved; // Whether the fields below describe a saved image
+    private long lastSaveNanos;
+    private int lastSaveGeneration;
+
+    /**
+     * A best individual waiting to be rendered.
+     */
+    private static final class Snapshot {
+        final Individual individual;
+        final int generation;
+        final double scaleX;
+        final double scaleY;
+        final RenderBackend backend;
+
+        /**
+         * Creates a snapshot.
+         *
+         * @param individual The best individual; must not be modified afterwards.
+         * @param generation Generation it was found in.
+         * @param scaleX     Horizontal scale to the output resolution.
+         * @param scaleY     Vertical scale to the output resolution.
+         * @param backend    Renderer to draw it with.
+         */
+        Snapshot(Individual individual, int generation, double scaleX, double scaleY, RenderBackend backend) {
+            this.individual = individual;
+            this.generation = generation;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.backend = backend;
+        }
+    }
+
+    /**
+     * Creates a publisher. Its thread starts with the first offer.
+     *
+     * @param outputWidth       Width of the saved images.
+     * @param outputHeight      Height of the saved images.
+     * @param outputFormat      Image format (e.g., "png", "jpg").
+     * @param minIntervalMillis Minimum time between two saved images.
+     * @param minGenerations    Minimum number of generations between two saved images.
+     */
+    SnapshotPublisher(int outputWidth, int outputHeight, String outputFormat, long minIntervalMillis, int minGenerations) {
+        this.outputWidth = outputWidth;
+        this.outputHeight = outputHeight;
+        this.outputFormat = outputFormat;
+        this.thread = new Thread(this::run, "snapshot-publisher");
+        thread.setDaemon(true);
+        setRate(minIntervalMillis, minGenerations);
+    }
+
+    /**
+     * Changes how often images are written.
+     *
+     * @param minIntervalMillis Minimum time between two saved images.
+     * @param minGenerations    Minimum number of generations between two saved images.
+     */
+    void setRate(long minIntervalMillis, int minGenerations) {
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.minGenerations = minGenerations;
+    }
+
+    /**
+     * Offers a new best individual. Never blocks; a snapshot still waiting is dropped.
+     *
+     * @param individual The best individual; must not be modified afterwards.
+     * @param generation Generation it was found in.
+     * @param scaleX     Horizontal scale from the individual's resolution to the output resolution.
+     * @param scaleY     Vertical scale from the individual's resolution to the output resolution.
+     * @param backend    Renderer to draw it with.
+     */
+    void offer(Individual individual, int generation, double scaleX, double scaleY, RenderBackend backend) {
+        if (closed) {
+            return;
+        }
+        latest.set(new Snapshot(individual, generation, scaleX, scaleY, backend));
+        if (started.compareAndSet(false, true)) {
+            thread.start();
+        } else {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Writes the pending snapshot, if any, and stops the publisher thread.
+     */
+    void close() {
+        closed = true;
+        if (!started.get()) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Publisher loop: waits until a snapshot is pending and the rate limit allows another image,
+     * then renders and saves the newest snapshot.
+     */
+    private void run() {
+        while (true) {
+            Snapshot snapshot = latest.get();
+            if (snapshot == null) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+
+            long wait = saved ? lastSaveNanos + minIntervalNanos - System.nanoTime() : 0;
+            boolean due = !saved || snapshot.generation - lastSaveGeneration >= minGenerations;
+            if (!closed && wait > 0) {
+                // A newer offer or close() wakes the thread early
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            if (!closed && !due) {
+                // Only a snapshot from a later generation can become due
+                LockSupport.park(this);
+                continue;
+            }
+
+            snapshot = latest.getAndSet(null);
+            save(snapshot);
+            saved = true;
+            lastSaveNanos = System.nanoTime();
+            lastSaveGeneration = snapshot.generation;
+        }
+    }
+
+    /**
+     * Renders a snapshot at the output resolution and saves it.
+     *
+     * @param snapshot The snapshot to save.
+     */
+    private void save(Snapshot snapshot) {
+        ImageSaveEvent event = new ImageSaveEvent();
+        event.begin();
+        Individual individual = snapshot.individual;
+        if (snapshot.scaleX != 1.0 || snapshot.scaleY != 1.0) {
+            individual = individual.copy();
+            individual.scale(snapshot.scaleX, snapshot.scaleY);
+        }
+        BufferedImage image = ImageUtils.renderImage(individual, outputWidth, outputHeight, snapshot.backend);
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+        String filename = String.format("output/intermediate_gen_%05d_%s.%s", snapshot.generation, timestamp, outputFormat);
+        ImageUtils.saveImage(image, filename, outputFormat);
+        event.end();
+        if (event.shouldCommit()) {
+            event.generation = snapshot.generation;
+            event.format = outputFormat;
+            event.path = filename;
+            event.commit();
+        }
+        logger.info(() -> "Image saved to " + filename);
+    }
+}
@@ -0,0 +1,199 @@
+package com.martinszuc.polygen.ga;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides when an evolution run should end. Every criterion is disabled until its setter is
+ * called, and the run ends as soon as any enabled criterion is met. A policy without criteria
+ * never ends a run; it then runs until the generation cap of {@link GeneticAlgorithm#evolve(int)}
+ * or {@link GeneticAlgorithm#stop()}.
+ * <p>
+ * The policy keeps the plateau window of the run it is checking, so every algorithm needs its own.
+ */
+public class TerminationPolicy {
+    private int maxGenerations = Integer.MAX_VALUE;
+    private double targetMse = -1;
+    private int plateauGenerations = 0;
+    private double plateauImprovementRatio;
+    private long maxNanos = Long.MAX_VALUE;
+    private long maxEvaluations = Long.MAX_VALUE;
+
+    // Plateau window, only tracked at full resolution
+    private int windowStartGeneration = -1;
+    private double windowStartFitness;
+
+    /**
+     * Ends the run after a number of generations.
+     *
+     * @param maxGenerations Generations after which the run ends.
+     */
+    public void setGenerationLimit(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+    }
+
+    /**
+     * Ends the run once the best individual is this close to the target. Only checked at full
+     * resolution, since coarser pyramid levels report a different error.
+     *
+     * @param targetMse MSE per channel at which the run ends.
+     */
+    public void setTargetMse(double targetMse) {
+        this.targetMse = targetMse;
+    }
+
+    /**
+     * Ends the run once the best fitness improves by less than the given fraction over a window
+     * of generations. Only checked at full resolution; coarser levels are left through the
+     * multi-resolution plateau check instead.
+     *
+     * @param generations      Length of the window in generations.
+     * @param improvementRatio Minimum improvement over the window, relative to the fitness at its start.
+     */
+    public void setPlateau(int generations, double improvementRatio) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("The plateau window must be at least one generation");
+        }
+        this.plateauGenerations = generations;
+        this.plateauImprovementRatio = improvementRatio;
+    }
+
+    /**
+     * Ends the run once it has spent this long evolving. Time between calls to
+     * {@link GeneticAlgorithm#advance(int)} does not count.
+     *
+     * @param maxMillis Evolution time in milliseconds.
+     */
+    public void setTimeBudget(long maxMillis) {
+        this.maxNanos = maxMillis * 1_000_000L;
+    }
+
+    /**
+     * Ends the run after a number of computed fitness evaluations. Fitness values served from the
+     * fitness cache or still valid from the previous generation are free.
+     *
+     * @param maxEvaluations Number of evaluations after which the run ends.
+     */
+    public void setEvaluationBudget(long maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    /**
+     * Checks every enabled criterion after a generation.
+     *
+     * @param generation     Number of generations run so far.
+     * @param bestFitness    Best fitness of the latest generation.
+     * @param evaluations    Number of fitness evaluations computed so far.
+     * @param elapsedNanos   Time spent evolving so far.
+     * @param fullResolution Whether the fitness was measured against the full-resolution target.
+     * @return The criterion that was met, or null if the run should go on.
+     */
+    synchronized TerminationReason check(int generation, double bestFitness, long evaluations, long elapsedNanos,
+                                         boolean fullResolution) {
+        if (generation >= maxGenerations) {
+            return TerminationReason.GENERATION_LIMIT;
+        }
+        if (fullResolution && targetMse >= 0 && toMse(bestFitness) <= targetMse) {
+            return TerminationReason.TARGET_MSE;
+        }
+        if (plateauGenerations > 0 && hasPlateaued(generation, bestFitness, fullResolution)) {
+            return TerminationReason.FITNESS_PLATEAU;
+        }
+        if (elapsedNanos >= maxNanos) {
+            return TerminationReason.TIME_BUDGET;
+        }
+        if (evaluations >= maxEvaluations) {
+            return TerminationReason.EVALUATION_BUDGET;
+        }
+        return null;
+    }
+
+    /**
+     * Advances the plateau window and checks whether the fitness stalled over the last one.
+     * The window restarts whenever the run is not at full resolution.
+     *
+     * @param generation     Number of generations run so far.
+     * @param bestFitness    Best fitness of the latest generation.
+     * @param fullResolution Whether the fitness was measured against the full-resolution target.
+     * @return True if a whole window passed without enough improvement.
+     */
+    private boolean hasPlateaued(int generation, double bestFitness, boolean fullResolution) {
+        if (!fullResolution || windowStartGeneration < 0) {
+            windowStartGeneration = fullResolution ? generation : -1;
+            windowStartFitness = bestFitness;
+            return false;
+        }
+        if (generation - windowStartGeneration < plateauGenerations) {
+            return false;
+        }
+        boolean plateaued = bestFitness - windowStartFitness < plateauImprovementRatio * windowStartFitness;
+        windowStartGeneration = generation;
+        windowStartFitness = bestFitness;
+        return plateaued;
+    }
+
+    /**
+     * Gets the generation the current plateau window started at, for checkpoints.
+     *
+     * @return Start generation, or -1 if no window is open.
+     */
+    synchronized int getWindowStartGeneration() {
+        return windowStartGeneration;
+    }
+
+    /**
+     * Gets the best fitness at the start of the current plateau window, for checkpoints.
+     *
+     * @return Fitness at the window start.
+     */
+    synchronized double getWindowStartFitness() {
+        return windowStartFitness;
+    }
+
+    /**
+     * Restores the plateau window of a resumed run.
+     *
+     * @param generation Start generation, or -1 if no window was open.
+     * @param fitness    Best fitness at the window start.
+     */
+    synchronized void restoreWindow(int generation, double fitness) {
+        this.windowStartGeneration = generation;
+        this.windowStartFitness = fitness;
+    }
+
+    /**
+     * Converts a fitness value back to the MSE it was computed from.
+     *
+     * @param fitness Fitness value.
+     * @return MSE per channel.
+     */
+    static double toMse(double fitness) {
+        return 1.0 / fitness - 1e-10;
+    }
+
+    /**
+     * Describes the enabled criteria, for logging.
+     *
+     * @return Comma-separated criteria, or "none".
+     */
+    @Override
+    public String toString() {
+        List<String> criteria = new ArrayList<>();
+        if (maxGenerations != Integer.MAX_VALUE) {
+            criteria.add(maxGenerations + " generations");
+        }
+        if (targetMse >= 0) {
+            criteria.add("MSE <= " + targetMse);
+        }
+        if (plateauGenerations > 0) {
+            criteria.add("improvement < " + (plateauImprovementRatio * 100) + "% over " + plateauGenerations + " generations");
+        }
+        if (maxNanos != Long.MAX_VALUE) {
+            criteria.add(maxNanos / 1_000_000L + " ms");
+        }
+        if (maxEvaluations != Long.MAX_VALUE) {
+            criteria.add(maxEvaluations + " evaluations");
+        }
+        return criteria.isEmpty() ? "none" : String.join(", ", criteria);
+    }
+}
@@ -0,0 +1,36 @@
+package com.martinszuc.polygen.ga;
+
+/**
+ * Why an evolution run ended.
+ */
+public enum TerminationReason {
+    /**
+     * The generation limit of the policy or of {@link GeneticAlgorithm#evolve(int)} was reached.
+     */
+    GENERATION_LIMIT,
+
+    /**
+     * The best fitness improved by less than the plateau ratio over the plateau window.
+     */
+    FITNESS_PLATEAU,
+
+    /**
+     * The best individual's MSE at full resolution dropped to the target MSE.
+     */
+    TARGET_MSE,
+
+    /**
+     * The time spent evolving reached the time budget.
+     */
+    TIME_BUDGET,
+
+    /**
+     * The number of computed fitness evaluations reached the evaluation budget.
+     */
+    EVALUATION_BUDGET,
+
+    /**
+     * {@link GeneticAlgorithm#stop()} was called.
+     */
+    STOPPED
+}
@@ -0,0 +1,78 @@
+package com.martinszuc.polygen.utils;
+
+import java.util.logging.Logger;
+
+/**
+ * Storage for the planar RGB channels of a {@link TargetImage}. Channels live in heap arrays by
+ * default; an off-heap implementation on the incubating Foreign Memory API is picked up when it
+ * was compiled in (Maven profile {@code foreign}) and the JVM was started with
+ * {@code --add-modules jdk.incubator.foreign}.
+ */
+abstract class ChannelStore implements AutoCloseable {
+    static final int RED = 0;
+    static final int GREEN = 1;
+    static final int BLUE = 2;
+
+    private static final Logger logger = Logger.getLogger(ChannelStore.class.getName());
+    private static final String OFF_HEAP_STORE = "com.martinszuc.polygen.utils.OffHeapChannelStore";
+
+    /**
+     * Reads one channel sample.
+     *
+     * @param channel {@link #RED}, {@link #GREEN} or {@link #BLUE}.
+     * @param index   Pixel index in row-major order.
+     * @return The unsigned sample value.
+     */
+    abstract int sample(int channel, int index);
+
+    /**
+     * Copies one whole channel into a heap array.
+     *
+     * @param channel     {@link #RED}, {@link #GREEN} or {@link #BLUE}.
+     * @param destination Array receiving one sample per pixel.
+     */
+    abstract void copyChannel(int channel, byte[] destination);
+
+    /**
+     * Computes the squared RGB error of a run of candidate pixels against the stored channels.
+     *
+     * @param pixels       Candidate ARGB pixels.
+     * @param pixelOffset  Index of the first candidate pixel.
+     * @param targetOffset Index of the first target pixel.
+     * @param length       Number of pixels to compare.
+     * @return Sum of squared channel differences.
+     */
+    abstract long squaredError(int[] pixels, int pixelOffset, int targetOffset, int length);
+
+    /**
+     * Checks whether the channels live outside the Java heap.
+     *
+     * @return True for native storage.
+     */
+    abstract boolean isOffHeap();
+
+    /**
+     * Releases native memory. The store must not be used afterwards; closing twice is allowed.
+     */
+    @Override
+    public abstract void close();
+
+    /**
+     * Copies channels into native memory.
+     *
+     * @param source The channels to copy.
+     * @param size   Number of pixels.
+     * @return The off-heap copy, or null if off-heap storage is not available.
+     */
+    static ChannelStore offHeap(ChannelStore source, int size) {
+        try {
+            return (ChannelStore) Class.forName(OFF_HEAP_STORE)
+                    .getDeclaredConstructor(ChannelStore.class, int.class)
+                    .newInstance(source, size);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or jdk.incubator.foreign was not added to the JVM
+            logger.warning("Off-heap target storage is not available, keeping the target on the heap.");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.martinszuc.polygen.utils;
+
+/**
+ * Channels kept in three heap byte arrays, scored with the {@link PixelKernels}.
+ */
+final class HeapChannelStore extends ChannelStore {
+    private final byte[] red;
+    private final byte[] green;
+    private final byte[] blue;
+
+    /**
+     * Wraps already unpacked channels without copying them.
+     *
+     * @param red   Red channel.
+     * @param green Green channel.
+     * @param blue  Blue channel.
+     */
+    HeapChannelStore(byte[] red, byte[] green, byte[] blue) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+    }
+
+    @Override
+    int sample(int channel, int index) {
+        return samples(channel)[index] & 0xFF;
+    }
+
+    @Override
+    void copyChannel(int channel, byte[] destination) {
+        byte[] samples = samples(channel);
+        System.arraycopy(samples, 0, destination, 0, samples.length);
+    }
+
+    @Override
+    long squaredError(int[] pixels, int pixelOffset, int targetOffset, int length) {
+        return PixelKernels.INSTANCE.squaredError(red, green, blue, targetOffset, pixels, pixelOffset, length);
+    }
+
+    @Override
+    boolean isOffHeap() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // Heap arrays are left to the garbage collector
+    }
+
+    /**
+     * Gets the array holding a channel.
+     *
+     * @param channel {@link #RED}, {@link #GREEN} or {@link #BLUE}.
+     * @return The channel's samples.
+     */
+    private byte[] samples(int channel) {
+        return channel == RED ? red : channel == GREEN ? green : blue;
+    }
+}
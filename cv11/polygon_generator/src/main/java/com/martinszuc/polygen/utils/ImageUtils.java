@@ -6,13 +6,25 @@ import com.martinszuc.polygen.ga.PolygonData;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Utility class for image loading, rendering, and fitness calculations.
  */
 public class ImageUtils {
+    // Rows handed to each task by the parallel MSE
+    private static final int PARALLEL_ROWS_PER_TASK = 64;
+    // Reusable vertex buffers for Graphics2D.fillPolygon, indexed x then y
+    private static final ThreadLocal<int[][]> VERTEX_BUFFERS = ThreadLocal.withInitial(() -> new int[][]{new int[8], new int[8]});
 
     /**
      * Loads an image from the specified path.
@@ -53,27 +65,70 @@ public class ImageUtils {
      */
     public static BufferedImage renderImage(Individual individual, int width, int height) {
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        renderInto(individual, image, null);
+        return image;
+    }
+
+    /**
+     * Renders an individual to a BufferedImage using the selected backend.
+     *
+     * @param individual The individual to render.
+     * @param width      The width of the image.
+     * @param height     The height of the image.
+     * @param backend    The renderer to use.
+     * @return The rendered BufferedImage.
+     */
+    public static BufferedImage renderImage(Individual individual, int width, int height, RenderBackend backend) {
+        if (backend == RenderBackend.JAVA2D) {
+            return renderImage(individual, width, height);
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ScanlineRasterizer.renderInto(individual, pixels, width, height, null);
+        return image;
+    }
+
+    /**
+     * Renders an individual onto an existing image, optionally restricted to a clip region.
+     * Pixels outside the clip are left untouched, so a cached render can be refreshed in place.
+     *
+     * @param individual The individual to render.
+     * @param image      The image to draw onto.
+     * @param clip       Region to repaint, or null to repaint the whole image.
+     */
+    public static void renderInto(Individual individual, BufferedImage image, Rectangle clip) {
         Graphics2D g = image.createGraphics();
 
         try {
+            if (clip != null) {
+                g.setClip(clip);
+            }
+
             // Clear the canvas with white background
             g.setColor(Color.WHITE);
-            g.fillRect(0, 0, width, height);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
 
             // Enable anti-aliasing for better quality
             g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             // Render each polygon
-            for (PolygonData polygon : individual.getPolygons()) {
-                g.setColor(polygon.getColor());
+            int[][] vertices = VERTEX_BUFFERS.get();
+            for (int p = 0; p < individual.getPolygonCount(); p++) {
+                PolygonData polygon = individual.getPolygon(p);
+                int numPoints = polygon.getNumPoints();
+                if (vertices[0].length < numPoints) {
+                    vertices[0] = new int[numPoints];
+                    vertices[1] = new int[numPoints];
+                }
+                polygon.copyXPoints(vertices[0], 0);
+                polygon.copyYPoints(vertices[1], 0);
 
-                g.fillPolygon(polygon.getXPoints(), polygon.getYPoints(), polygon.getNumPoints());
+                g.setColor(polygon.getColor());
+                g.fillPolygon(vertices[0], vertices[1], numPoints);
             }
         } finally {
             g.dispose();
         }
-
-        return image;
     }
 
     /**
@@ -109,4 +164,89 @@ public class ImageUtils {
 
         return mse / (width * height * 3); // Average over all pixels and channels
     }
+
+    /**
+     * Calculates the Mean Squared Error (MSE) between a precomputed target and an image.
+     * Images backed by a plain {@link DataBufferInt} are read straight from their backing array.
+     *
+     * @param target The unpacked target.
+     * @param image  The image to compare.
+     * @return The MSE value.
+     */
+    public static double calculateMSE(TargetImage target, BufferedImage image) {
+        int[] pixels = packedPixels(image);
+        if (pixels == null) {
+            pixels = image.getRGB(0, 0, target.getWidth(), target.getHeight(), null, 0, target.getWidth());
+        }
+        return calculateMSE(target, pixels);
+    }
+
+    /**
+     * Calculates the Mean Squared Error (MSE) between a precomputed target and packed ARGB pixels.
+     *
+     * @param target The unpacked target.
+     * @param pixels Candidate pixels in row-major order with the target's width.
+     * @return The MSE value.
+     */
+    public static double calculateMSE(TargetImage target, int[] pixels) {
+        long error = target.squaredError(pixels, 0, 0, target.getPixelCount());
+        return (double) error / ((double) target.getPixelCount() * 3);
+    }
+
+    /**
+     * Calculates the Mean Squared Error (MSE) by scoring bands of rows in parallel on the given pool.
+     * Intended for very large targets where a single image already saturates one core. Must not be
+     * called from a worker of {@code executor}, which could then wait on itself.
+     *
+     * @param target   The unpacked target.
+     * @param pixels   Candidate pixels in row-major order with the target's width.
+     * @param executor Pool the bands are scored on.
+     * @return The MSE value.
+     */
+    public static double calculateMSEParallel(TargetImage target, int[] pixels, ExecutorService executor) {
+        int width = target.getWidth();
+        int height = target.getHeight();
+        List<Callable<Long>> bands = new ArrayList<>();
+        for (int start = 0; start < height; start += PARALLEL_ROWS_PER_TASK) {
+            int y0 = start;
+            int y1 = Math.min(height, y0 + PARALLEL_ROWS_PER_TASK);
+            bands.add(() -> {
+                int offset = y0 * width;
+                return target.squaredError(pixels, offset, offset, (y1 - y0) * width);
+            });
+        }
+
+        long error = 0;
+        try {
+            for (Future<Long> band : executor.invokeAll(bands)) {
+                error += band.get();
+            }
+        } catch (InterruptedException e) {
+            // Keep the interrupt for the caller and finish the score on this thread
+            Thread.currentThread().interrupt();
+            return calculateMSE(target, pixels);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scoring a band of rows failed.", e.getCause());
+        }
+
+        return (double) error / ((double) target.getPixelCount() * 3);
+    }
+
+    /**
+     * Gets the backing pixel array of an image stored as one packed int per pixel without padding.
+     *
+     * @param image The image to inspect.
+     * @return The backing array, or null if the layout is different.
+     */
+    public static int[] packedPixels(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        if (!(buffer instanceof DataBufferInt) || buffer.getOffset() != 0 || image.getRaster().getParent() != null) {
+            return null;
+        }
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB) {
+            return null;
+        }
+        return ((DataBufferInt) buffer).getData();
+    }
 }
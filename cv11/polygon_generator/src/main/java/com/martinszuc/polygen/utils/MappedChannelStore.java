@@ -0,0 +1,50 @@
+package com.martinszuc.polygen.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Channels read straight from the planes of a memory-mapped {@link RawPixelCache} file, so a
+ * cached target is neither copied nor kept on the heap. The mapping stays valid after the file is
+ * closed and is released by the garbage collector. Cache files are only ever replaced by moving a
+ * new file over them, never rewritten in place, so the mapped pages cannot change underneath.
+ */
+final class MappedChannelStore extends ChannelStore {
+    private final ByteBuffer[] planes;
+
+    /**
+     * Wraps mapped planes without copying them.
+     *
+     * @param red   Red plane.
+     * @param green Green plane.
+     * @param blue  Blue plane.
+     */
+    MappedChannelStore(ByteBuffer red, ByteBuffer green, ByteBuffer blue) {
+        this.planes = new ByteBuffer[]{red, green, blue};
+    }
+
+    @Override
+    int sample(int channel, int index) {
+        return planes[channel].get(index) & 0xFF;
+    }
+
+    @Override
+    void copyChannel(int channel, byte[] destination) {
+        planes[channel].get(0, destination);
+    }
+
+    @Override
+    long squaredError(int[] pixels, int pixelOffset, int targetOffset, int length) {
+        return PixelKernels.INSTANCE.squaredError(planes[RED], planes[GREEN], planes[BLUE], targetOffset,
+                pixels, pixelOffset, length);
+    }
+
+    @Override
+    boolean isOffHeap() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // Mappings cannot be released explicitly; the garbage collector unmaps them
+    }
+}
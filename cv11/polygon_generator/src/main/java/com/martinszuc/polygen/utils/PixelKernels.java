@@ -0,0 +1,89 @@
+package com.martinszuc.polygen.utils;
+
+import java.nio.ByteBuffer;
+import java.util.logging.Logger;
+
+/**
+ * The two inner loops every fitness evaluation spends its time in: scoring pixels against the
+ * target and blending a solid color over a run of pixels. A Vector API implementation is picked
+ * when it was compiled in (Maven profile {@code vector}) and the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise the scalar loops are used. Both produce
+ * bit-identical results.
+ */
+abstract class PixelKernels {
+    private static final Logger logger = Logger.getLogger(PixelKernels.class.getName());
+    private static final String VECTOR_KERNELS = "com.martinszuc.polygen.utils.VectorPixelKernels";
+
+    /**
+     * The implementation used by the renderer and the scoring code.
+     */
+    static final PixelKernels INSTANCE = load();
+
+    /**
+     * Computes the squared RGB error of a run of candidate pixels against planar target channels.
+     *
+     * @param red          Target red channel.
+     * @param green        Target green channel.
+     * @param blue         Target blue channel.
+     * @param targetOffset Index of the first target pixel.
+     * @param pixels       Candidate ARGB pixels.
+     * @param pixelOffset  Index of the first candidate pixel.
+     * @param length       Number of pixels to compare.
+     * @return Sum of squared channel differences.
+     */
+    abstract long squaredError(byte[] red, byte[] green, byte[] blue, int targetOffset,
+                               int[] pixels, int pixelOffset, int length);
+
+    /**
+     * Computes the squared RGB error of a run of candidate pixels against planar target channels
+     * held in buffers, e.g. views of native or memory-mapped memory. Buffer positions are ignored.
+     *
+     * @param red          Target red channel.
+     * @param green        Target green channel.
+     * @param blue         Target blue channel.
+     * @param targetOffset Index of the first target pixel.
+     * @param pixels       Candidate ARGB pixels.
+     * @param pixelOffset  Index of the first candidate pixel.
+     * @param length       Number of pixels to compare.
+     * @return Sum of squared channel differences.
+     */
+    abstract long squaredError(ByteBuffer red, ByteBuffer green, ByteBuffer blue, int targetOffset,
+                               int[] pixels, int pixelOffset, int length);
+
+    /**
+     * Blends a color over a run of opaque pixels: {@code (src * a + dst * (255 - a) + 127) / 255}
+     * per channel, with the source rounding term added to the source side.
+     *
+     * @param pixels Opaque ARGB pixels, blended in place.
+     * @param from   First pixel of the run (inclusive).
+     * @param to     Last pixel of the run (exclusive).
+     * @param argb   Color to blend, alpha in the top byte.
+     */
+    abstract void blend(int[] pixels, int from, int to, int argb);
+
+    /**
+     * Picks the vectorized kernels if they are on the class path and their module is present.
+     *
+     * @return The kernels to use.
+     */
+    private static PixelKernels load() {
+        try {
+            PixelKernels kernels = (PixelKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+            logger.fine("Using Vector API pixel kernels");
+            return kernels;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or jdk.incubator.vector was not added to the JVM
+            logger.fine("Using scalar pixel kernels");
+            return new ScalarPixelKernels();
+        }
+    }
+
+    /**
+     * Checks which implementation was picked, e.g. for benchmark reports.
+     *
+     * @return True if the Vector API kernels are in use.
+     */
+    static boolean isVectorized() {
+        return !(INSTANCE instanceof ScalarPixelKernels);
+    }
+}
@@ -0,0 +1,179 @@
+package com.martinszuc.polygen.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Loads targets through a raw pixel cache file stored next to the source image. The first load
+ * decodes the image and writes its planar channels to {@code <source>.pixels}; later loads map
+ * that file and score the target straight from the mapped planes, skipping decoding and copying. The cache is used only while the source file's size,
+ * modification time and CRC-32C all match the values recorded in its header.
+ * <p>
+ * File layout, big-endian: magic, version, width, height (ints), source size, source
+ * modification time in milliseconds, source CRC-32C (longs), then the red, green and blue planes.
+ */
+public final class RawPixelCache {
+    private static final Logger logger = Logger.getLogger(RawPixelCache.class.getName());
+
+    public static final String SUFFIX = ".pixels";
+    private static final int MAGIC = 0x50475058; // "PGPX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4 + 3 * 8;
+
+    private RawPixelCache() {
+    }
+
+    /**
+     * Loads a target, from the cache file if it is valid and by decoding the image otherwise.
+     * A missing or stale cache is rewritten; failing to write it only logs a warning.
+     *
+     * @param path The file path to the image.
+     * @return The unpacked target.
+     * @throws IOException If neither the cache nor the image can be read.
+     */
+    public static TargetImage load(String path) throws IOException {
+        Path source = Paths.get(path);
+        Path cache = Paths.get(path + SUFFIX);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        long checksum = checksum(source);
+
+        TargetImage target = read(cache, size, modified, checksum);
+        if (target != null) {
+            return target;
+        }
+
+        BufferedImage image = ImageUtils.loadImage(path);
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + path);
+        }
+        target = new TargetImage(image);
+        try {
+            write(cache, target, size, modified, checksum);
+        } catch (IOException e) {
+            logger.warning("Could not write the pixel cache " + cache + ": " + e.getMessage());
+        }
+        return target;
+    }
+
+    /**
+     * Maps the planes of a cache file if its header matches the source.
+     *
+     * @param cache    The cache file.
+     * @param size     Current size of the source.
+     * @param modified Current modification time of the source.
+     * @param checksum Current CRC-32C of the source.
+     * @return The cached target, or null if the cache is missing, stale or malformed.
+     */
+    private static TargetImage read(Path cache, long size, long modified, long checksum) {
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            // Reads from a regular file only come up short at the end of the file
+            if (channel.read(header) < HEADER_BYTES) {
+                return null;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return null;
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            if (header.getLong() != size || header.getLong() != modified || header.getLong() != checksum
+                    || width <= 0 || height <= 0) {
+                return null;
+            }
+            long pixels = (long) width * height;
+            if (pixels > Integer.MAX_VALUE || channel.size() != HEADER_BYTES + 3 * pixels) {
+                return null;
+            }
+
+            ByteBuffer[] planes = new ByteBuffer[3];
+            for (int plane = ChannelStore.RED; plane <= ChannelStore.BLUE; plane++) {
+                planes[plane] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + plane * pixels, pixels);
+            }
+            return new TargetImage(width, height,
+                    new MappedChannelStore(planes[ChannelStore.RED], planes[ChannelStore.GREEN], planes[ChannelStore.BLUE]));
+        } catch (IOException e) {
+            logger.warning("Ignoring unreadable pixel cache " + cache + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a cache file through a uniquely named temporary file in the same directory, so
+     * readers never see a partial cache and concurrent writers do not share a file.
+     *
+     * @param cache    The cache file.
+     * @param target   The decoded target.
+     * @param size     Size of the source.
+     * @param modified Modification time of the source.
+     * @param checksum CRC-32C of the source.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void write(Path cache, TargetImage target, long size, long modified, long checksum) throws IOException {
+        Path directory = cache.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, cache.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(target.getWidth()).putInt(target.getHeight());
+                header.putLong(size).putLong(modified).putLong(checksum);
+                writeFully(channel, header.flip());
+                byte[] samples = new byte[target.getPixelCount()];
+                for (int plane = ChannelStore.RED; plane <= ChannelStore.BLUE; plane++) {
+                    target.copyChannel(plane, samples);
+                    writeFully(channel, ByteBuffer.wrap(samples));
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Writes a whole buffer, looping over partial writes.
+     *
+     * @param channel The channel to write to.
+     * @param buffer  The bytes to write.
+     * @throws IOException If the write fails.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Computes the CRC-32C of a file's contents.
+     *
+     * @param file The file to hash.
+     * @return The checksum.
+     * @throws IOException If the file cannot be read.
+     */
+    private static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] chunk = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
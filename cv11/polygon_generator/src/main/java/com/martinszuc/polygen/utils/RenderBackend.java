@@ -0,0 +1,16 @@
+package com.martinszuc.polygen.utils;
+
+/**
+ * Available implementations for rendering individuals.
+ */
+public enum RenderBackend {
+    /**
+     * Java2D with anti-aliasing, drawing into a freshly allocated BufferedImage.
+     */
+    JAVA2D,
+
+    /**
+     * Pure-Java scanline rasterizer drawing into a reusable per-thread pixel buffer.
+     */
+    SCANLINE
+}
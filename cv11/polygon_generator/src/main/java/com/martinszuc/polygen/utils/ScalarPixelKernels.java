@@ -0,0 +1,61 @@
+package com.martinszuc.polygen.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plain-Java pixel kernels, used whenever the Vector API is not available.
+ */
+final class ScalarPixelKernels extends PixelKernels {
+
+    @Override
+    long squaredError(byte[] red, byte[] green, byte[] blue, int targetOffset,
+                      int[] pixels, int pixelOffset, int length) {
+        long error = 0;
+        for (int i = 0; i < length; i++) {
+            int rgb = pixels[pixelOffset + i];
+            int t = targetOffset + i;
+
+            int dr = (red[t] & 0xFF) - ((rgb >> 16) & 0xFF);
+            int dg = (green[t] & 0xFF) - ((rgb >> 8) & 0xFF);
+            int db = (blue[t] & 0xFF) - (rgb & 0xFF);
+
+            error += dr * dr + dg * dg + db * db;
+        }
+        return error;
+    }
+
+    @Override
+    long squaredError(ByteBuffer red, ByteBuffer green, ByteBuffer blue, int targetOffset,
+                      int[] pixels, int pixelOffset, int length) {
+        long error = 0;
+        for (int i = 0; i < length; i++) {
+            int rgb = pixels[pixelOffset + i];
+            int t = targetOffset + i;
+
+            int dr = (red.get(t) & 0xFF) - ((rgb >> 16) & 0xFF);
+            int dg = (green.get(t) & 0xFF) - ((rgb >> 8) & 0xFF);
+            int db = (blue.get(t) & 0xFF) - (rgb & 0xFF);
+
+            error += dr * dr + dg * dg + db * db;
+        }
+        return error;
+    }
+
+    @Override
+    void blend(int[] pixels, int from, int to, int argb) {
+        // Premultiply the source so each blend is one multiply-add per channel
+        int alpha = argb >>> 24;
+        int inverseAlpha = 255 - alpha;
+        int srcR = ((argb >> 16) & 0xFF) * alpha + 127;
+        int srcG = ((argb >> 8) & 0xFF) * alpha + 127;
+        int srcB = (argb & 0xFF) * alpha + 127;
+
+        for (int x = from; x < to; x++) {
+            int dst = pixels[x];
+            int r = (srcR + ((dst >> 16) & 0xFF) * inverseAlpha) / 255;
+            int g = (srcG + ((dst >> 8) & 0xFF) * inverseAlpha) / 255;
+            int b = (srcB + (dst & 0xFF) * inverseAlpha) / 255;
+            pixels[x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+}
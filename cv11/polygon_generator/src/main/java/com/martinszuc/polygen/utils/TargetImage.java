@@ -0,0 +1,205 @@
+package com.martinszuc.polygen.utils;
+
+import java.awt.image.BufferedImage;
+import java.util.zip.CRC32C;
+
+/**
+ * Target image unpacked once into planar channel arrays, so scoring never has to go through
+ * {@link BufferedImage#getRGB(int, int)} or re-extract the target's channels.
+ * <p>
+ * Channels are on the heap unless moved off-heap with {@link #toOffHeap()}; off-heap targets
+ * hold native memory until {@link #close()}.
+ */
+public final class TargetImage implements AutoCloseable {
+    private final int width;
+    private final int height;
+    private final ChannelStore channels;
+
+    /**
+     * Unpacks the RGB channels of an image.
+     *
+     * @param image The image to approximate.
+     */
+    public TargetImage(BufferedImage image) {
+        this(image.getWidth(), image.getHeight(),
+                image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+    }
+
+    /**
+     * Unpacks the RGB channels of packed ARGB pixels.
+     *
+     * @param width  Width of the image.
+     * @param height Height of the image.
+     * @param pixels ARGB pixels in row-major order.
+     */
+    public TargetImage(int width, int height, int[] pixels) {
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        byte[] red = new byte[size];
+        byte[] green = new byte[size];
+        byte[] blue = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int rgb = pixels[i];
+            red[i] = (byte) (rgb >> 16);
+            green[i] = (byte) (rgb >> 8);
+            blue[i] = (byte) rgb;
+        }
+        this.channels = new HeapChannelStore(red, green, blue);
+    }
+
+    /**
+     * Constructor for images built from already unpacked channels.
+     *
+     * @param width    Width of the image.
+     * @param height   Height of the image.
+     * @param channels The channel storage.
+     */
+    TargetImage(int width, int height, ChannelStore channels) {
+        this.width = width;
+        this.height = height;
+        this.channels = channels;
+    }
+
+    /**
+     * Creates a copy at half the width and height by averaging each 2x2 block of pixels.
+     * Odd edges reuse their last row or column. The copy is always on the heap.
+     *
+     * @return The downscaled target.
+     */
+    public TargetImage halfSize() {
+        int newWidth = Math.max(1, width / 2);
+        int newHeight = Math.max(1, height / 2);
+        int size = newWidth * newHeight;
+        byte[] newRed = new byte[size];
+        byte[] newGreen = new byte[size];
+        byte[] newBlue = new byte[size];
+
+        for (int y = 0; y < newHeight; y++) {
+            int row0 = Math.min(height - 1, 2 * y) * width;
+            int row1 = Math.min(height - 1, 2 * y + 1) * width;
+            for (int x = 0; x < newWidth; x++) {
+                int col0 = Math.min(width - 1, 2 * x);
+                int col1 = Math.min(width - 1, 2 * x + 1);
+                int i = y * newWidth + x;
+                newRed[i] = average(ChannelStore.RED, row0 + col0, row0 + col1, row1 + col0, row1 + col1);
+                newGreen[i] = average(ChannelStore.GREEN, row0 + col0, row0 + col1, row1 + col0, row1 + col1);
+                newBlue[i] = average(ChannelStore.BLUE, row0 + col0, row0 + col1, row1 + col0, row1 + col1);
+            }
+        }
+        return new TargetImage(newWidth, newHeight, new HeapChannelStore(newRed, newGreen, newBlue));
+    }
+
+    /**
+     * Rounds the mean of four unsigned channel samples.
+     *
+     * @param channel The channel to sample.
+     * @param a       Index of the first sample.
+     * @param b       Index of the second sample.
+     * @param c       Index of the third sample.
+     * @param d       Index of the fourth sample.
+     * @return The rounded mean.
+     */
+    private byte average(int channel, int a, int b, int c, int d) {
+        return (byte) ((channels.sample(channel, a) + channels.sample(channel, b)
+                + channels.sample(channel, c) + channels.sample(channel, d) + 2) >> 2);
+    }
+
+    /**
+     * Creates a copy whose channels live in native memory, keeping heap usage independent of the
+     * image size. Needs the Maven profile {@code foreign} and {@code --add-modules jdk.incubator.foreign}.
+     *
+     * @return The off-heap copy; this target itself if it already is off-heap or off-heap storage is unavailable.
+     */
+    public TargetImage toOffHeap() {
+        if (channels.isOffHeap()) {
+            return this;
+        }
+        ChannelStore offHeap = ChannelStore.offHeap(channels, getPixelCount());
+        return offHeap != null ? new TargetImage(width, height, offHeap) : this;
+    }
+
+    /**
+     * Copies one whole channel into a heap array.
+     *
+     * @param channel     {@link ChannelStore#RED}, {@link ChannelStore#GREEN} or {@link ChannelStore#BLUE}.
+     * @param destination Array receiving one sample per pixel.
+     */
+    void copyChannel(int channel, byte[] destination) {
+        channels.copyChannel(channel, destination);
+    }
+
+    /**
+     * Computes the CRC-32C of the red, green and blue channels, a fingerprint that tells whether
+     * two targets hold the same pixels.
+     *
+     * @return Checksum of the channels in red, green, blue order.
+     */
+    public long checksum() {
+        CRC32C crc = new CRC32C();
+        byte[] samples = new byte[getPixelCount()];
+        for (int channel = ChannelStore.RED; channel <= ChannelStore.BLUE; channel++) {
+            channels.copyChannel(channel, samples);
+            crc.update(samples);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Checks whether the channels live outside the Java heap.
+     *
+     * @return True for off-heap targets.
+     */
+    public boolean isOffHeap() {
+        return channels.isOffHeap();
+    }
+
+    /**
+     * Releases the native memory of an off-heap target; does nothing for heap targets.
+     * The target must not be scored afterwards. Closing twice is allowed.
+     */
+    @Override
+    public void close() {
+        channels.close();
+    }
+
+    /**
+     * Gets the width of the target.
+     *
+     * @return Width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the target.
+     *
+     * @return Height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of pixels in the target.
+     *
+     * @return Width times height.
+     */
+    public int getPixelCount() {
+        return width * height;
+    }
+
+    /**
+     * Computes the squared RGB error of a run of candidate pixels against the target.
+     *
+     * @param pixels       Candidate ARGB pixels.
+     * @param pixelOffset  Index of the first candidate pixel.
+     * @param targetOffset Index of the first target pixel.
+     * @param length       Number of pixels to compare.
+     * @return Sum of squared channel differences.
+     */
+    public long squaredError(int[] pixels, int pixelOffset, int targetOffset, int length) {
+        return channels.squaredError(pixels, pixelOffset, targetOffset, length);
+    }
+}
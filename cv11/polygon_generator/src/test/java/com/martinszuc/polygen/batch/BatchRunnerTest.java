@@ -0,0 +1,174 @@
+package com.martinszuc.polygen.batch;
+
+import com.martinszuc.polygen.ga.GeneticAlgorithm;
+import com.martinszuc.polygen.ga.TerminationPolicy;
+import com.martinszuc.polygen.ga.TerminationReason;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs batches of small targets and checks that every job gets its turns and writes its output,
+ * including when fewer jobs may be active than were submitted, when a job fails and when the
+ * runner is stopped.
+ */
+public class BatchRunnerTest {
+    private static final int POPULATION = 12;
+    private static final int POLYGONS = 6;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Submits more jobs than may be active at once and checks that each one runs to its own
+     * generation limit and saves its result.
+     */
+    @Test(timeout = 60_000)
+    public void finishesEveryJobWithFewActiveSlots() throws IOException, InterruptedException {
+        int[] limits = {3, 9, 5, 12, 4, 7};
+        BatchRunner runner = new BatchRunner(2, 2, 1, POPULATION, POLYGONS, 0.05, "png");
+        List<GeneticAlgorithm> algorithms = recordAlgorithms(runner);
+        List<File> outputs = new ArrayList<>();
+        for (int i = 0; i < limits.length; i++) {
+            outputs.add(submit(runner, i, limits[i]));
+        }
+
+        runner.run();
+        runner.shutdown();
+
+        for (File output : outputs) {
+            assertTrue(output + " was not written", output.isFile());
+        }
+        assertEquals(limits.length, algorithms.size());
+        List<Integer> generations = new ArrayList<>();
+        for (GeneticAlgorithm algorithm : algorithms) {
+            assertEquals(TerminationReason.GENERATION_LIMIT, algorithm.getTerminationReason());
+            generations.add(algorithm.getGenerationCount());
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int limit : limits) {
+            expected.add(limit);
+        }
+        Collections.sort(generations);
+        Collections.sort(expected);
+        assertEquals(expected, generations);
+    }
+
+    /**
+     * Checks that a job whose target cannot be loaded gives up its active slot, so the jobs
+     * queued behind it still run.
+     */
+    @Test(timeout = 60_000)
+    public void failedJobReleasesItsSlot() throws IOException, InterruptedException {
+        BatchRunner runner = new BatchRunner(1, 1, 1, POPULATION, POLYGONS, 0.05, "png");
+        File missing = new File(folder.getRoot(), "missing.png");
+        File missingOutput = new File(folder.getRoot(), "missing-out.png");
+        runner.submit(new BatchJob(missing.getPath(), missingOutput.getPath(), limit(3)));
+        File first = submit(runner, 0, 3);
+        File second = submit(runner, 1, 3);
+
+        runner.run();
+        runner.shutdown();
+
+        assertFalse(missingOutput.exists());
+        assertTrue(first.isFile());
+        assertTrue(second.isFile());
+    }
+
+    /**
+     * Stops a batch whose jobs would otherwise run for a long time and checks that the active
+     * jobs get their last slice and save a result, while the job that never started writes nothing.
+     */
+    @Test(timeout = 60_000)
+    public void stopSavesActiveJobs() throws IOException, InterruptedException {
+        BatchRunner runner = new BatchRunner(2, 2, 1, POPULATION, POLYGONS, 0.05, "png");
+        List<GeneticAlgorithm> algorithms = recordAlgorithms(runner);
+        File first = submit(runner, 0, 1_000_000);
+        File second = submit(runner, 1, 1_000_000);
+        File never = submit(runner, 2, 1_000_000);
+
+        Thread stopper = new Thread(() -> {
+            try {
+                while (algorithms.size() < 2) {
+                    Thread.sleep(10);
+                }
+                Thread.sleep(200); // Let both jobs take a few slices
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runner.stop();
+        });
+        stopper.start();
+        runner.run();
+        stopper.join();
+        runner.shutdown();
+
+        assertTrue(first.isFile());
+        assertTrue(second.isFile());
+        assertFalse(never.exists());
+        for (GeneticAlgorithm algorithm : algorithms) {
+            assertEquals(TerminationReason.STOPPED, algorithm.getTerminationReason());
+        }
+    }
+
+    /**
+     * Collects the algorithm of every job as it starts.
+     *
+     * @param runner The runner to observe.
+     * @return Thread-safe list that receives each job's algorithm.
+     */
+    private static List<GeneticAlgorithm> recordAlgorithms(BatchRunner runner) {
+        List<GeneticAlgorithm> algorithms = Collections.synchronizedList(new ArrayList<>());
+        runner.setConfigurer(algorithms::add);
+        return algorithms;
+    }
+
+    /**
+     * Writes a small target, each a different size and pattern, and queues a job for it.
+     *
+     * @param runner      The runner to queue the job on.
+     * @param index       Number of the job, used for file names and the pattern.
+     * @param generations Generation limit of the job.
+     * @return The file the job should write its result to.
+     * @throws IOException If the target cannot be written.
+     */
+    private File submit(BatchRunner runner, int index, int generations) throws IOException {
+        int width = 16 + 2 * index;
+        int height = 12 + index;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 15) << 16 | (y * 20) << 8 | (index * 40));
+            }
+        }
+        File target = new File(folder.getRoot(), "target" + index + ".png");
+        ImageIO.write(image, "png", target);
+        File output = new File(folder.getRoot(), "output" + index + ".png");
+        runner.submit(new BatchJob(target.getPath(), output.getPath(), limit(generations)));
+        return output;
+    }
+
+    /**
+     * Creates a policy that only limits the number of generations.
+     *
+     * @param generations The generation limit.
+     * @return The policy.
+     */
+    private static TerminationPolicy limit(int generations) {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setGenerationLimit(generations);
+        return policy;
+    }
+}
@@ -0,0 +1,208 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.TargetImage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that a checkpointed run resumes exactly where it stopped, and only into the run it belongs to.
+ */
+public class CheckpointTest {
+    private static final int WIDTH = 48;
+    private static final int HEIGHT = 32;
+    private static final int POPULATION = 20;
+    private static final int POLYGONS = 10;
+    private static final double MUTATION_RATE = 0.3;
+    private static final long SEED = 21;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Runs 20 generations in one go and as 10, a checkpoint and 10 more in a new instance with a
+     * different thread count, and expects the same final population and best individual.
+     *
+     * @throws IOException If the checkpoint cannot be written or read.
+     */
+    @Test
+    public void resumedRunMatchesUninterruptedRun() throws IOException {
+        GeneticAlgorithm uninterrupted = newAlgorithm(target(0), MUTATION_RATE, 2);
+        uninterrupted.evolve(20);
+
+        String path = checkpointPath();
+        GeneticAlgorithm first = newAlgorithm(target(0), MUTATION_RATE, 2);
+        first.setCheckpointing(path, 10);
+        first.advance(10);
+        first.shutdownExecutors();
+        assertTrue("an unfinished run keeps its checkpoint", new File(path).isFile());
+
+        GeneticAlgorithm resumed = newAlgorithm(target(0), MUTATION_RATE, 3);
+        resumed.resumeFrom(path);
+        assertEquals(10, resumed.getGenerationCount());
+        resumed.evolve(10);
+
+        assertEquals(20, resumed.getGenerationCount());
+        // The fitness distribution covers every individual of the last generation
+        EngineMetrics expected = uninterrupted.getMetrics();
+        EngineMetrics actual = resumed.getMetrics();
+        assertEquals(expected.getGeneration(), actual.getGeneration());
+        assertEquals(expected.getMeanFitness(), actual.getMeanFitness(), 0.0);
+        assertEquals(expected.getFitnessStdDev(), actual.getFitnessStdDev(), 0.0);
+        assertSameBest(uninterrupted.getBestIndividual(), resumed.getBestIndividual());
+    }
+
+    /**
+     * Runs a seeded, non-deterministic run with and without frequent checkpoints, once with the
+     * generational engine and once with islands, and expects the same result: taking a
+     * checkpoint must not draw from the run's generators.
+     */
+    @Test
+    public void checkpointingDoesNotChangeSeededRun() {
+        for (boolean islands : new boolean[]{false, true}) {
+            GeneticAlgorithm plain = newSeededAlgorithm(islands);
+            plain.evolve(20);
+
+            GeneticAlgorithm checkpointed = newSeededAlgorithm(islands);
+            checkpointed.setCheckpointing(new File(folder.getRoot(), "seeded-" + islands + ".bin").getPath(), 3);
+            checkpointed.evolve(20);
+
+            String run = islands ? "islands" : "generational";
+            EngineMetrics expected = plain.getMetrics();
+            EngineMetrics actual = checkpointed.getMetrics();
+            assertEquals(run, expected.getMeanFitness(), actual.getMeanFitness(), 0.0);
+            assertEquals(run, expected.getFitnessStdDev(), actual.getFitnessStdDev(), 0.0);
+            assertSameBest(plain.getBestIndividual(), checkpointed.getBestIndividual());
+        }
+    }
+
+    /**
+     * Expects a run that reached its generation limit to move its checkpoint aside.
+     */
+    @Test
+    public void finishedRunRetiresCheckpoint() {
+        String path = checkpointPath();
+        GeneticAlgorithm algorithm = newAlgorithm(target(0), MUTATION_RATE, 2);
+        algorithm.setCheckpointing(path, 5);
+        algorithm.evolve(10);
+
+        assertFalse(new File(path).exists());
+        assertTrue(new File(path + ".done").isFile());
+    }
+
+    /**
+     * Expects a checkpoint to be rejected by a run with another mutation rate or another target.
+     *
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    @Test
+    public void checkpointOfAnotherRunIsRejected() throws IOException {
+        String path = checkpointPath();
+        GeneticAlgorithm first = newAlgorithm(target(0), MUTATION_RATE, 2);
+        first.setCheckpointing(path, 5);
+        first.advance(5);
+        first.shutdownExecutors();
+
+        assertRejected(newAlgorithm(target(0), MUTATION_RATE * 2, 2), path);
+        assertRejected(newAlgorithm(target(1), MUTATION_RATE, 2), path);
+    }
+
+    /**
+     * Creates a deterministic algorithm that writes no intermediate images.
+     *
+     * @param target       The image to approximate.
+     * @param mutationRate Mutation probability.
+     * @param threads      Worker pool size.
+     * @return The configured algorithm.
+     */
+    private GeneticAlgorithm newAlgorithm(TargetImage target, double mutationRate, int threads) {
+        GeneticAlgorithm algorithm = new GeneticAlgorithm(target, POPULATION, POLYGONS, mutationRate, threads, "png");
+        algorithm.setSaveIntermediateImages(false);
+        algorithm.setDeterministic(SEED);
+        return algorithm;
+    }
+
+    /**
+     * Creates an algorithm seeded without deterministic mode, breeding serially so that its
+     * draws do not depend on the thread count.
+     *
+     * @param islands True to split the population into islands.
+     * @return The configured algorithm.
+     */
+    private static GeneticAlgorithm newSeededAlgorithm(boolean islands) {
+        GeneticAlgorithm algorithm = new GeneticAlgorithm(target(0), POPULATION, POLYGONS, MUTATION_RATE, 1, "png");
+        algorithm.setSaveIntermediateImages(false);
+        if (islands) {
+            algorithm.setIslandModel(2, 4, 1, MigrationTopology.RING);
+        }
+        algorithm.setSeed(SEED);
+        return algorithm;
+    }
+
+    /**
+     * Creates a small gradient target.
+     *
+     * @param variant Shifts one pixel, giving a target that differs only slightly.
+     * @return The target image.
+     */
+    private static TargetImage target(int variant) {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                pixels[y * WIDTH + x] = 0xFF000000 | (x * 5 << 16) | (y * 7 << 8) | ((x + y) * 3);
+            }
+        }
+        pixels[0] += variant;
+        return new TargetImage(WIDTH, HEIGHT, pixels);
+    }
+
+    /**
+     * Gets a checkpoint path in the temporary folder.
+     *
+     * @return Path of a file that does not exist yet.
+     */
+    private String checkpointPath() {
+        return new File(folder.getRoot(), "checkpoint.bin").getPath();
+    }
+
+    /**
+     * Asserts that resuming from a checkpoint fails.
+     *
+     * @param algorithm The algorithm that must refuse the checkpoint.
+     * @param path      The checkpoint file.
+     */
+    private static void assertRejected(GeneticAlgorithm algorithm, String path) {
+        try {
+            algorithm.resumeFrom(path);
+            fail("checkpoint of another run was accepted");
+        } catch (IOException expected) {
+            // Expected
+        } finally {
+            algorithm.shutdownExecutors();
+        }
+    }
+
+    /**
+     * Asserts that two individuals have the same fitness and genome.
+     *
+     * @param expected The reference individual.
+     * @param actual   The individual to check.
+     */
+    private static void assertSameBest(Individual expected, Individual actual) {
+        assertEquals(expected.getFitness(), actual.getFitness(), 0.0);
+        PolygonData[] expectedPolygons = expected.getPolygons();
+        PolygonData[] actualPolygons = actual.getPolygons();
+        assertEquals(expectedPolygons.length, actualPolygons.length);
+        for (int i = 0; i < expectedPolygons.length; i++) {
+            assertTrue("polygon " + i, expectedPolygons[i].hasSameGenes(actualPolygons[i]));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.RenderBackend;
+import com.martinszuc.polygen.utils.TargetImage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that deterministic mode gives the same run whatever the thread pool size, in every
+ * engine and population layout.
+ */
+@RunWith(Parameterized.class)
+public class DeterministicModeTest {
+    private static final int WIDTH = 48;
+    private static final int HEIGHT = 32;
+    private static final int POPULATION = 24;
+    private static final int POLYGONS = 10;
+    private static final int GENERATIONS = 8;
+    private static final long SEED = 25;
+    private static final int[] THREADS = {1, 2, Math.max(4, Runtime.getRuntime().availableProcessors())};
+
+    private final Consumer<GeneticAlgorithm> configuration;
+
+    /**
+     * Creates the test for one configuration.
+     *
+     * @param name          Name of the configuration, shown in test reports.
+     * @param configuration Applies the configuration to a new algorithm.
+     */
+    public DeterministicModeTest(String name, Consumer<GeneticAlgorithm> configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Lists the engines and layouts to check.
+     *
+     * @return Pairs of name and configuration.
+     */
+    @Parameters(name = "{0}")
+    public static List<Object[]> configurations() {
+        return Arrays.asList(
+                configuration("generational", algorithm -> {
+                }),
+                configuration("parallel breeding", algorithm -> algorithm.setParallelBreeding(true)),
+                configuration("stochastic universal sampling", algorithm -> {
+                    algorithm.setParallelBreeding(true);
+                    algorithm.setSelectionStrategy(SelectionStrategy.STOCHASTIC_UNIVERSAL);
+                }),
+                configuration("pipelined", algorithm -> algorithm.setPipelined(true)),
+                configuration("flat layout", algorithm -> {
+                    algorithm.setRenderBackend(RenderBackend.SCANLINE);
+                    algorithm.setPopulationLayout(PopulationLayout.FLAT);
+                }),
+                configuration("islands", algorithm -> algorithm.setIslandModel(4, 3, 2, MigrationTopology.RANDOM)),
+                configuration("steady state", algorithm -> algorithm.setSteadyState(true)),
+                configuration("multi-resolution", algorithm -> algorithm.setMultiResolution(3, 2)),
+                configuration("incremental evaluation", algorithm -> algorithm.setEvaluationMode(EvaluationMode.INCREMENTAL)),
+                configuration("fitness cache", algorithm -> algorithm.setFitnessCacheSize(1000)));
+    }
+
+    /**
+     * Runs the configuration with each thread count and compares every run with the single-threaded one.
+     */
+    @Test
+    public void sameRunWithEveryThreadCount() {
+        GeneticAlgorithm reference = run(THREADS[0]);
+        for (int i = 1; i < THREADS.length; i++) {
+            GeneticAlgorithm other = run(THREADS[i]);
+            String threads = THREADS[i] + " threads";
+
+            assertEquals(threads, reference.getGenerationCount(), other.getGenerationCount());
+            // The fitness distribution covers every individual of the last generation
+            assertEquals(threads, reference.getMetrics().getMeanFitness(), other.getMetrics().getMeanFitness(), 0.0);
+            assertEquals(threads, reference.getMetrics().getFitnessStdDev(), other.getMetrics().getFitnessStdDev(), 0.0);
+
+            Individual expected = reference.getBestIndividual();
+            Individual actual = other.getBestIndividual();
+            assertEquals(threads, expected.getFitness(), actual.getFitness(), 0.0);
+            PolygonData[] expectedPolygons = expected.getPolygons();
+            PolygonData[] actualPolygons = actual.getPolygons();
+            assertEquals(threads, expectedPolygons.length, actualPolygons.length);
+            for (int p = 0; p < expectedPolygons.length; p++) {
+                assertTrue(threads + ", polygon " + p, expectedPolygons[p].hasSameGenes(actualPolygons[p]));
+            }
+        }
+    }
+
+    /**
+     * Runs the configuration to the generation limit.
+     *
+     * @param threads Worker pool size.
+     * @return The finished algorithm.
+     */
+    private GeneticAlgorithm run(int threads) {
+        GeneticAlgorithm algorithm = new GeneticAlgorithm(target(), POPULATION, POLYGONS, 0.3, threads, "png");
+        algorithm.setSaveIntermediateImages(false);
+        configuration.accept(algorithm);
+        algorithm.setDeterministic(SEED);
+        algorithm.evolve(GENERATIONS);
+        return algorithm;
+    }
+
+    /**
+     * Creates a small gradient target.
+     *
+     * @return The target image.
+     */
+    private static TargetImage target() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                pixels[y * WIDTH + x] = 0xFF000000 | (x * 5 << 16) | (y * 7 << 8) | ((x + y) * 3);
+            }
+        }
+        return new TargetImage(WIDTH, HEIGHT, pixels);
+    }
+
+    /**
+     * Pairs a configuration with its name.
+     *
+     * @param name          Name shown in test reports.
+     * @param configuration Applies the configuration.
+     * @return Constructor arguments of the test.
+     */
+    private static Object[] configuration(String name, Consumer<GeneticAlgorithm> configuration) {
+        return new Object[]{name, configuration};
+    }
+}
@@ -0,0 +1,91 @@
+package com.martinszuc.polygen.ga;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks lookups, least-recently-used eviction, the total capacity and clearing of the fitness cache.
+ */
+public class FitnessCacheTest {
+    // Hashes are spread over segments by their top four bits; these all share the first segment
+    private static final long FIRST = 1;
+    private static final long SECOND = 2;
+    private static final long THIRD = 3;
+
+    /**
+     * Checks that stored values are found and absent ones are reported as NaN.
+     */
+    @Test
+    public void returnsStoredValues() {
+        FitnessCache cache = new FitnessCache(64);
+        cache.put(FIRST, 0.25);
+        cache.put(Long.MIN_VALUE, 0.5);
+
+        assertEquals(0.25, cache.get(FIRST), 0.0);
+        assertEquals(0.5, cache.get(Long.MIN_VALUE), 0.0);
+        assertTrue(Double.isNaN(cache.get(SECOND)));
+    }
+
+    /**
+     * Fills one segment past its share of the capacity and checks that the entry used least
+     * recently is the one evicted.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        FitnessCache cache = new FitnessCache(32); // Two entries per segment
+        cache.put(FIRST, 1);
+        cache.put(SECOND, 2);
+        cache.get(FIRST);
+        cache.put(THIRD, 3);
+
+        assertEquals(1, cache.get(FIRST), 0.0);
+        assertTrue(Double.isNaN(cache.get(SECOND)));
+        assertEquals(3, cache.get(THIRD), 0.0);
+    }
+
+    /**
+     * Checks that a full cache holds exactly its capacity, including capacities smaller than the
+     * number of segments.
+     */
+    @Test
+    public void keepsWithinCapacity() {
+        for (int capacity : new int[]{1, 5, 16, 17, 100}) {
+            FitnessCache cache = new FitnessCache(capacity);
+            long[] hashes = new long[capacity * 20 + 200];
+            SplittableRandom random = new SplittableRandom(capacity);
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = random.nextLong();
+                cache.put(hashes[i], i);
+            }
+
+            int kept = 0;
+            for (long hash : hashes) {
+                if (!Double.isNaN(cache.get(hash))) {
+                    kept++;
+                }
+            }
+            // With this many puts every segment is full, so the whole capacity is in use
+            assertEquals("capacity " + capacity, capacity, kept);
+        }
+    }
+
+    /**
+     * Checks that clearing drops every entry and that the cache is usable afterwards.
+     */
+    @Test
+    public void clearDropsEverything() {
+        FitnessCache cache = new FitnessCache(64);
+        cache.put(FIRST, 1);
+        cache.put(Long.MIN_VALUE, 2);
+        cache.clear();
+
+        assertTrue(Double.isNaN(cache.get(FIRST)));
+        assertTrue(Double.isNaN(cache.get(Long.MIN_VALUE)));
+        cache.put(FIRST, 3);
+        assertEquals(3, cache.get(FIRST), 0.0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.martinszuc.polygen.ga;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.Color;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes genome records to files, reads them back and expects the same polygons, fitness and
+ * dimensions.
+ */
+public class GenomeRecordTest {
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 80;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Round-trips several records through a JSON-lines file, one record per line.
+     */
+    @Test
+    public void jsonLinesRoundTrip() throws Exception {
+        SplittableRandom random = new SplittableRandom(23);
+        List<GenomeRecord> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(new GenomeRecord(i * 7, 1.0 / (random.nextDouble() * 5000 + 1e-10), WIDTH, HEIGHT,
+                    new Individual(12, WIDTH, HEIGHT, random)));
+        }
+        records.add(new GenomeRecord(99, 0.5, WIDTH, HEIGHT, opaqueCorners()));
+
+        Path file = folder.getRoot().toPath().resolve("genomes.jsonl");
+        List<String> lines = new ArrayList<>();
+        for (GenomeRecord record : records) {
+            lines.add(record.toJson());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        List<String> read = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(records.size(), read.size());
+        for (int i = 0; i < records.size(); i++) {
+            GenomeRecord expected = records.get(i);
+            GenomeRecord actual = GenomeRecord.fromJson(read.get(i));
+            assertEquals(expected.getGeneration(), actual.getGeneration());
+            assertEquals(expected.getFitness(), actual.getFitness(), 0.0);
+            assertEquals(expected.getWidth(), actual.getWidth());
+            assertEquals(expected.getHeight(), actual.getHeight());
+            assertSameGenes(expected.getIndividual(), actual.getIndividual());
+        }
+    }
+
+    /**
+     * Writes a record as an SVG file, parses it as XML and expects the canvas size, every
+     * polygon's vertices and color, and its opacity to the three decimals written.
+     */
+    @Test
+    public void svgRoundTrip() throws Exception {
+        Individual individual = new Individual(15, WIDTH, HEIGHT, new SplittableRandom(29));
+        GenomeRecord record = new GenomeRecord(3, 0.001, WIDTH, HEIGHT, individual);
+        Path file = folder.getRoot().toPath().resolve("record.svg");
+        Files.writeString(file, record.toSvg(), StandardCharsets.UTF_8);
+
+        Document svg = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+        Element root = svg.getDocumentElement();
+        assertEquals(String.valueOf(WIDTH), root.getAttribute("width"));
+        assertEquals(String.valueOf(HEIGHT), root.getAttribute("height"));
+
+        NodeList polygons = svg.getElementsByTagName("polygon");
+        assertEquals(individual.getPolygonCount(), polygons.getLength());
+        for (int p = 0; p < polygons.getLength(); p++) {
+            Element element = (Element) polygons.item(p);
+            PolygonData expected = individual.getPolygon(p);
+            String[] points = element.getAttribute("points").split(" ");
+            assertEquals(expected.getNumPoints(), points.length);
+            for (int i = 0; i < points.length; i++) {
+                String[] xy = points[i].split(",");
+                assertEquals(expected.getX(i), Integer.parseInt(xy[0]));
+                assertEquals(expected.getY(i), Integer.parseInt(xy[1]));
+            }
+            int rgb = Integer.parseInt(element.getAttribute("fill").substring(1), 16);
+            assertEquals(expected.getARGB() & 0xFFFFFF, rgb);
+            double opacity = Double.parseDouble(element.getAttribute("fill-opacity"));
+            assertEquals(expected.getARGB() >>> 24, (int) Math.round(opacity * 255));
+        }
+    }
+
+    /**
+     * Creates an individual of fully opaque polygons touching the image corners, whose colors
+     * have the sign bit set and must survive as unsigned values.
+     *
+     * @return The individual.
+     */
+    private static Individual opaqueCorners() {
+        PolygonData[] polygons = {
+                new PolygonData(new int[]{0, WIDTH, 0}, new int[]{0, 0, HEIGHT}, 3, new Color(0xFFFF0000, true)),
+                new PolygonData(new int[]{WIDTH, WIDTH, 0, 10}, new int[]{0, HEIGHT, HEIGHT, 5}, 4, new Color(0xFF000000, true)),
+        };
+        return new Individual(polygons);
+    }
+
+    /**
+     * Asserts that two individuals have the same polygons in the same order.
+     *
+     * @param expected The written individual.
+     * @param actual   The individual read back.
+     */
+    private static void assertSameGenes(Individual expected, Individual actual) {
+        assertEquals(expected.getPolygonCount(), actual.getPolygonCount());
+        for (int p = 0; p < expected.getPolygonCount(); p++) {
+            assertTrue("polygon " + p, expected.getPolygon(p).hasSameGenes(actual.getPolygon(p)));
+        }
+    }
+}
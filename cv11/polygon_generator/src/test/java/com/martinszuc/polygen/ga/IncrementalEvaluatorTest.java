@@ -0,0 +1,189 @@
+package com.martinszuc.polygen.ga;
+
+import com.martinszuc.polygen.utils.ImageUtils;
+import com.martinszuc.polygen.utils.RenderBackend;
+import com.martinszuc.polygen.utils.TargetImage;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Checks that incremental evaluation always scores an individual exactly like a full re-render,
+ * through mutation, crossover, copies sharing a render cache and whole-image repaints.
+ */
+public class IncrementalEvaluatorTest {
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    private static final int POPULATION = 8;
+    private static final int POLYGONS = 12;
+    private static final int GENERATIONS = 60;
+
+    /**
+     * Evolves a small population with the Java2D backend.
+     */
+    @Test
+    public void matchesFullRenderWithJava2D() {
+        evolveAndCompare(RenderBackend.JAVA2D);
+    }
+
+    /**
+     * Evolves a small population with the scanline backend.
+     */
+    @Test
+    public void matchesFullRenderWithScanline() {
+        evolveAndCompare(RenderBackend.SCANLINE);
+    }
+
+    /**
+     * Scores individuals with one backend, invalidates them as a backend switch does and
+     * checks that the other backend then scores them from its own render.
+     */
+    @Test
+    public void invalidationDropsCachedRender() {
+        TargetImage target = target();
+        IncrementalEvaluator java2d = new IncrementalEvaluator(target, RenderBackend.JAVA2D);
+        IncrementalEvaluator scanline = new IncrementalEvaluator(target, RenderBackend.SCANLINE);
+        SplittableRandom random = new SplittableRandom(2);
+
+        for (int i = 0; i < POPULATION; i++) {
+            Individual individual = new Individual(POLYGONS, WIDTH, HEIGHT, random);
+            Individual copy = individual.copy();
+            double before = java2d.evaluate(individual);
+            java2d.evaluate(copy);
+            assertNotEquals(before, fullScore(target, RenderBackend.SCANLINE, individual), 0.0);
+
+            individual.invalidateFitness();
+            assertScore(scanline, target, RenderBackend.SCANLINE, individual, "individual " + i);
+            // A copy made before the switch shares the old cache until it is invalidated too
+            copy.invalidateFitness();
+            assertScore(scanline, target, RenderBackend.SCANLINE, copy, "copy " + i);
+        }
+    }
+
+    /**
+     * Changes polygons through the deprecated public setters and checks that the owning
+     * individual notices, both in its fitness flag and in the region it re-renders.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedSettersReachTheOwner() {
+        TargetImage target = target();
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(target, RenderBackend.SCANLINE);
+        SplittableRandom random = new SplittableRandom(3);
+        Individual individual = new Individual(POLYGONS, WIDTH, HEIGHT, random);
+        individual.setFitness(evaluator.evaluate(individual));
+
+        individual.getPolygon(0).setColor(new Color(0x40FF0000, true));
+        assertFalse(individual.isFitnessValid());
+        assertScore(evaluator, target, RenderBackend.SCANLINE, individual, "color");
+
+        PolygonData polygon = individual.getPolygon(1);
+        int[] xs = polygon.getXPoints();
+        int[] ys = polygon.getYPoints();
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = WIDTH - 1 - xs[i];
+            ys[i] = HEIGHT - 1 - ys[i];
+        }
+        polygon.setXPoints(xs);
+        polygon.setYPoints(ys);
+        assertScore(evaluator, target, RenderBackend.SCANLINE, individual, "vertices");
+    }
+
+    /**
+     * Breeds a population for many generations and compares every incremental score with the
+     * full-render score of the same individual. Parents are scored again after their children
+     * were copied from them, so shared caches are exercised from both sides.
+     *
+     * @param backend The renderer to use.
+     */
+    private static void evolveAndCompare(RenderBackend backend) {
+        TargetImage target = target();
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(target, backend);
+        SplittableRandom random = new SplittableRandom(1);
+
+        Individual[] population = new Individual[POPULATION];
+        for (int i = 0; i < POPULATION; i++) {
+            population[i] = new Individual(POLYGONS, WIDTH, HEIGHT, random);
+            assertScore(evaluator, target, backend, population[i], "initial " + i);
+        }
+
+        for (int generation = 0; generation < GENERATIONS; generation++) {
+            Individual[] next = new Individual[POPULATION];
+            for (int i = 0; i < POPULATION; i++) {
+                Individual parent1 = population[random.nextInt(POPULATION)];
+                Individual parent2 = population[random.nextInt(POPULATION)];
+                Individual child = parent1.copy();
+                // Crossover as the engine does it, through setPolygon
+                for (int p = random.nextInt(POLYGONS); p < POLYGONS; p++) {
+                    child.setPolygon(p, parent2.getPolygonArray()[p].copy());
+                }
+                child.mutate(WIDTH, HEIGHT, random);
+                if (random.nextInt(4) == 0) {
+                    // A fresh polygon usually covers much of the image, forcing a full repaint
+                    child.setPolygon(random.nextInt(POLYGONS), new Polygon(WIDTH, HEIGHT, random).getPolygonData());
+                }
+                String step = "generation " + generation + ", child " + i;
+                assertScore(evaluator, target, backend, child, step);
+
+                // The parent still shares caches with its copies; changing it must not disturb them
+                if (random.nextInt(3) == 0) {
+                    parent1.mutate(WIDTH, HEIGHT, random);
+                    assertScore(evaluator, target, backend, parent1, step + ", parent");
+                }
+                next[i] = child;
+            }
+            for (Individual individual : population) {
+                assertScore(evaluator, target, backend, individual, "generation " + generation + ", old population");
+            }
+            population = next;
+        }
+    }
+
+    /**
+     * Asserts that the incremental score of an individual equals its full-render score.
+     *
+     * @param evaluator  The incremental evaluator.
+     * @param target     The target image.
+     * @param backend    The renderer to compare with.
+     * @param individual The individual to score.
+     * @param step       Description of the step, shown on failure.
+     */
+    private static void assertScore(IncrementalEvaluator evaluator, TargetImage target, RenderBackend backend,
+                                    Individual individual, String step) {
+        assertEquals(step, fullScore(target, backend, individual), evaluator.evaluate(individual), 0.0);
+    }
+
+    /**
+     * Scores an individual from a full render.
+     *
+     * @param target     The target image.
+     * @param backend    The renderer to use.
+     * @param individual The individual to score.
+     * @return The fitness value.
+     */
+    private static double fullScore(TargetImage target, RenderBackend backend, Individual individual) {
+        double mse = ImageUtils.calculateMSE(target, ImageUtils.renderImage(individual, WIDTH, HEIGHT, backend));
+        return 1.0 / (mse + 1e-10);
+    }
+
+    /**
+     * Creates a small target with gradients and a hard edge.
+     *
+     * @return The target image.
+     */
+    private static TargetImage target() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int edge = x > y ? 0x80 : 0;
+                pixels[y * WIDTH + x] = 0xFF000000 | (x * 4 << 16) | (y * 5 << 8) | ((x + y) * 2 ^ edge);
+            }
+        }
+        return new TargetImage(WIDTH, HEIGHT, pixels);
+    }
+}
@@ -0,0 +1,127 @@
+package com.martinszuc.polygen.ga;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks elite selection against a full sort and the proportionate strategies against their
+ * expected draw frequencies.
+ */
+public class SelectionTest {
+
+    /**
+     * Compares the elites with the top of a fully sorted population, over many sizes and with
+     * both distinct and heavily repeated fitness values.
+     */
+    @Test
+    public void elitesMatchFullSort() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int trial = 0; trial < 2000; trial++) {
+            int size = 1 + random.nextInt(200);
+            // Every third trial draws from a handful of values, so most fitnesses are equal
+            int distinct = trial % 3 == 0 ? 1 + random.nextInt(4) : 0;
+            Selection selection = new Selection(size, SelectionStrategy.TOURNAMENT);
+            double[] fitness = new double[size];
+            for (int i = 0; i < size; i++) {
+                fitness[i] = distinct > 0 ? random.nextInt(distinct) : random.nextDouble();
+                selection.setFitness(i, fitness[i]);
+            }
+            int count = random.nextInt(size + 1);
+
+            int[] top = selection.topIndices(count);
+            double[] sorted = fitness.clone();
+            Arrays.sort(sorted);
+            boolean[] seen = new boolean[size];
+            for (int i = 0; i < count; i++) {
+                String where = "trial " + trial + ", position " + i;
+                assertTrue(where, !seen[top[i]]);
+                seen[top[i]] = true;
+                assertEquals(where, sorted[size - 1 - i], fitness[top[i]], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Checks that every individual is drawn by stochastic universal sampling within one draw of
+     * its expected share, which the evenly spaced pointers guarantee.
+     */
+    @Test
+    public void stochasticUniversalSamplingIsProportional() {
+        double[] fitness = {1, 2, 3, 4, 0, 10};
+        Selection selection = selection(fitness, SelectionStrategy.STOCHASTIC_UNIVERSAL);
+        int draws = 200;
+        selection.prepare(draws, new SplittableRandom(7));
+
+        int[] counts = new int[fitness.length];
+        for (int draw = 0; draw < draws; draw++) {
+            counts[selection.select(new SplittableRandom(draw), draw)]++;
+        }
+        for (int i = 0; i < fitness.length; i++) {
+            double expected = draws * fitness[i] / 20;
+            assertEquals("individual " + i, expected, counts[i], 1.0);
+        }
+    }
+
+    /**
+     * Checks that rank selection draws individuals in proportion to their rank, regardless of
+     * how far apart their fitness values are.
+     */
+    @Test
+    public void rankSelectionIsProportionalToRank() {
+        double[] fitness = {0.5, 1000, 2, 1};
+        Selection selection = selection(fitness, SelectionStrategy.RANK);
+        SplittableRandom random = new SplittableRandom(11);
+        selection.prepare(0, random);
+
+        int draws = 100_000;
+        int[] counts = new int[fitness.length];
+        for (int draw = 0; draw < draws; draw++) {
+            counts[selection.select(random)]++;
+        }
+        // Ranks 1 to 4 from least to most fit, out of a total weight of 10
+        int[] ranks = {1, 4, 3, 2};
+        for (int i = 0; i < fitness.length; i++) {
+            assertEquals("individual " + i, ranks[i] / 10.0, (double) counts[i] / draws, 0.01);
+        }
+    }
+
+    /**
+     * Checks that roulette selection draws individuals in proportion to their fitness.
+     */
+    @Test
+    public void rouletteIsProportionalToFitness() {
+        double[] fitness = {1, 3, 0, 6};
+        Selection selection = selection(fitness, SelectionStrategy.ROULETTE);
+        SplittableRandom random = new SplittableRandom(13);
+        selection.prepare(0, random);
+
+        int draws = 100_000;
+        int[] counts = new int[fitness.length];
+        for (int draw = 0; draw < draws; draw++) {
+            counts[selection.select(random)]++;
+        }
+        for (int i = 0; i < fitness.length; i++) {
+            assertEquals("individual " + i, fitness[i] / 10, (double) counts[i] / draws, 0.01);
+        }
+    }
+
+    /**
+     * Creates a selector filled with the given fitness values.
+     *
+     * @param fitness  Fitness of each individual.
+     * @param strategy How parents are chosen.
+     * @return The selector.
+     */
+    private static Selection selection(double[] fitness, SelectionStrategy strategy) {
+        Selection selection = new Selection(fitness.length, strategy);
+        for (int i = 0; i < fitness.length; i++) {
+            selection.setFitness(i, fitness[i]);
+        }
+        return selection;
+    }
+}
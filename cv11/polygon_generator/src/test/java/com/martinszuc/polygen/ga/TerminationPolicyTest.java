@@ -0,0 +1,126 @@
+package com.martinszuc.polygen.ga;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks each termination criterion in isolation, the plateau window across resolution changes
+ * and restoring the window of a resumed run.
+ */
+public class TerminationPolicyTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Checks that a policy without criteria never ends a run.
+     */
+    @Test
+    public void emptyPolicyNeverEnds() {
+        TerminationPolicy policy = new TerminationPolicy();
+        assertNull(policy.check(Integer.MAX_VALUE - 1, fitness(0), Long.MAX_VALUE - 1, Long.MAX_VALUE - 1, true));
+    }
+
+    /**
+     * Checks that the run ends exactly at the generation limit.
+     */
+    @Test
+    public void endsAtGenerationLimit() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setGenerationLimit(10);
+        assertNull(policy.check(9, fitness(100), 0, 0, true));
+        assertEquals(TerminationReason.GENERATION_LIMIT, policy.check(10, fitness(100), 0, 0, true));
+    }
+
+    /**
+     * Checks that the target MSE ends the run once reached, but only at full resolution.
+     */
+    @Test
+    public void endsAtTargetMseOnlyAtFullResolution() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setTargetMse(50);
+        assertNull(policy.check(1, fitness(50.5), 0, 0, true));
+        assertNull(policy.check(2, fitness(10), 0, 0, false));
+        assertEquals(TerminationReason.TARGET_MSE, policy.check(3, fitness(49.9), 0, 0, true));
+    }
+
+    /**
+     * Checks that the run ends once a whole window passes with too little improvement, and goes
+     * on while each window improves enough.
+     */
+    @Test
+    public void endsOnPlateau() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setPlateau(5, 0.01);
+        assertNull(policy.check(10, 1.0, 0, 0, true));     // Opens the window
+        assertNull(policy.check(14, 1.0, 0, 0, true));     // Window not over yet
+        assertNull(policy.check(15, 1.02, 0, 0, true));    // 2% better, next window starts
+        assertEquals(TerminationReason.FITNESS_PLATEAU, policy.check(20, 1.025, 0, 0, true));
+    }
+
+    /**
+     * Checks that the plateau window restarts while the run is not at full resolution, so
+     * generations spent on coarser levels never count towards it.
+     */
+    @Test
+    public void plateauWindowRestartsBelowFullResolution() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setPlateau(5, 0.01);
+        assertNull(policy.check(0, 1.0, 0, 0, true));
+        assertNull(policy.check(3, 1.0, 0, 0, false));
+        assertEquals(-1, policy.getWindowStartGeneration());
+
+        // Back at full resolution the window opens again, so five stalled generations are needed
+        assertNull(policy.check(6, 1.0, 0, 0, true));
+        assertEquals(6, policy.getWindowStartGeneration());
+        assertNull(policy.check(10, 1.0, 0, 0, true));
+        assertEquals(TerminationReason.FITNESS_PLATEAU, policy.check(11, 1.0, 0, 0, true));
+    }
+
+    /**
+     * Checks that a restored window continues where the checkpointed run left off.
+     */
+    @Test
+    public void restoredWindowContinues() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setPlateau(5, 0.01);
+        policy.restoreWindow(20, 2.0);
+        assertEquals(20, policy.getWindowStartGeneration());
+        assertEquals(2.0, policy.getWindowStartFitness(), 0.0);
+
+        assertNull(policy.check(24, 2.0, 0, 0, true));
+        assertEquals(TerminationReason.FITNESS_PLATEAU, policy.check(25, 2.01, 0, 0, true));
+    }
+
+    /**
+     * Checks that the time budget ends the run once the evolution time reaches it.
+     */
+    @Test
+    public void endsAtTimeBudget() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setTimeBudget(2000);
+        assertNull(policy.check(1, fitness(100), 0, 2 * SECOND - 1, true));
+        assertEquals(TerminationReason.TIME_BUDGET, policy.check(2, fitness(100), 0, 2 * SECOND, true));
+    }
+
+    /**
+     * Checks that the evaluation budget ends the run once that many evaluations were computed.
+     */
+    @Test
+    public void endsAtEvaluationBudget() {
+        TerminationPolicy policy = new TerminationPolicy();
+        policy.setEvaluationBudget(500);
+        assertNull(policy.check(1, fitness(100), 499, 0, true));
+        assertEquals(TerminationReason.EVALUATION_BUDGET, policy.check(2, fitness(100), 500, 0, true));
+    }
+
+    /**
+     * Converts an MSE to the fitness the algorithm would report for it.
+     *
+     * @param mse MSE per channel.
+     * @return Fitness value.
+     */
+    private static double fitness(double mse) {
+        return 1.0 / (mse + 1e-10);
+    }
+}
@@ -0,0 +1,167 @@
+package com.martinszuc.polygen.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the pixel cache is used while the source is unchanged and rebuilt as soon as the
+ * source's size, modification time or contents differ. Sources are uncompressed BMP files, so
+ * the pixels can change without the file size changing.
+ * <p>
+ * A cache hit is told apart from a fresh decode by altering a sample in the cache file: only a
+ * target read from the cache sees the altered sample.
+ */
+public class RawPixelCacheTest {
+    private static final int WIDTH = 24;
+    private static final int HEIGHT = 16;
+    private static final FileTime MODIFIED = FileTime.fromMillis(1_600_000_000_000L);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks that the first load writes the cache and the second one maps it.
+     */
+    @Test
+    public void reusesCacheForUnchangedSource() throws IOException {
+        Path source = writeSource(WIDTH, HEIGHT, 0);
+        long decoded = RawPixelCache.load(source.toString()).checksum();
+        assertTrue(Files.isRegularFile(cacheOf(source)));
+
+        TargetImage cached = RawPixelCache.load(source.toString());
+        assertTrue(cached.isOffHeap());
+        assertEquals(decoded, cached.checksum());
+
+        alterCache(source);
+        assertNotEquals(decoded, RawPixelCache.load(source.toString()).checksum());
+        assertNoTemporaryFiles();
+    }
+
+    /**
+     * Checks that a source of a different size is decoded again.
+     */
+    @Test
+    public void rebuildsCacheWhenSizeChanges() throws IOException {
+        Path source = writeSource(WIDTH, HEIGHT, 0);
+        RawPixelCache.load(source.toString());
+        alterCache(source);
+
+        writeSource(WIDTH + 4, HEIGHT, 0);
+        TargetImage target = RawPixelCache.load(source.toString());
+        assertEquals(WIDTH + 4, target.getWidth());
+        assertEquals(decode(source), target.checksum());
+    }
+
+    /**
+     * Checks that touching the source invalidates the cache even though its bytes are the same.
+     */
+    @Test
+    public void rebuildsCacheWhenModificationTimeChanges() throws IOException {
+        Path source = writeSource(WIDTH, HEIGHT, 0);
+        long decoded = RawPixelCache.load(source.toString()).checksum();
+        alterCache(source);
+
+        Files.setLastModifiedTime(source, FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+        assertEquals(decoded, RawPixelCache.load(source.toString()).checksum());
+    }
+
+    /**
+     * Checks that new pixels are noticed when the size and modification time stay the same.
+     */
+    @Test
+    public void rebuildsCacheWhenContentChanges() throws IOException {
+        Path source = writeSource(WIDTH, HEIGHT, 0);
+        long before = RawPixelCache.load(source.toString()).checksum();
+        long size = Files.size(source);
+
+        writeSource(WIDTH, HEIGHT, 1);
+        assertEquals(size, Files.size(source));
+        long after = RawPixelCache.load(source.toString()).checksum();
+        assertNotEquals(before, after);
+        assertEquals(decode(source), after);
+    }
+
+    /**
+     * Writes a gradient image as the source and pins its modification time.
+     *
+     * @param width  Image width.
+     * @param height Image height.
+     * @param shift  Offset added to every pixel, to produce different contents of the same size.
+     * @return Path of the source image.
+     * @throws IOException If the image cannot be written.
+     */
+    private Path writeSource(int width, int height, int shift) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 9 + shift) << 16 | (y * 13) << 8 | (x + y + shift));
+            }
+        }
+        Path source = folder.getRoot().toPath().resolve("target.bmp");
+        ImageIO.write(image, "bmp", source.toFile());
+        Files.setLastModifiedTime(source, MODIFIED);
+        return source;
+    }
+
+    /**
+     * Decodes a source without the cache.
+     *
+     * @param source The source image.
+     * @return Checksum of the decoded target.
+     * @throws IOException If the image cannot be read.
+     */
+    private static long decode(Path source) throws IOException {
+        return new TargetImage(ImageIO.read(source.toFile())).checksum();
+    }
+
+    /**
+     * Inverts the last sample of the cache file, leaving the header that describes the source intact.
+     *
+     * @param source The source image whose cache to alter.
+     * @throws IOException If the cache cannot be modified.
+     */
+    private static void alterCache(Path source) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(cacheOf(source).toFile(), "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int sample = file.read();
+            file.seek(last);
+            file.write(~sample);
+        }
+    }
+
+    /**
+     * Gets the cache file belonging to a source.
+     *
+     * @param source The source image.
+     * @return Path of its cache file.
+     */
+    private static Path cacheOf(Path source) {
+        return source.resolveSibling(source.getFileName() + RawPixelCache.SUFFIX);
+    }
+
+    /**
+     * Checks that writing the cache left no temporary files behind.
+     *
+     * @throws IOException If the folder cannot be listed.
+     */
+    private void assertNoTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(0, files.filter(file -> file.toString().endsWith(".tmp")).count());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.martinszuc.polygen.utils;
+
+import com.martinszuc.polygen.ga.Individual;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the scanline backend scores individuals like the Java2D reference renderer.
+ */
+public class ScanlineRasterizerTest {
+    private static final String TARGET_PATH = "src/main/resources/input/target_image.jpg";
+    private static final int POLYGONS = 50;
+    private static final int INDIVIDUALS = 20;
+    private static final double TOLERANCE = 0.01;
+
+    private static TargetImage target;
+
+    /**
+     * Loads the bundled target image.
+     *
+     * @throws IOException If the image cannot be read.
+     */
+    @BeforeClass
+    public static void loadTarget() throws IOException {
+        target = new TargetImage(ImageUtils.loadImage(TARGET_PATH));
+    }
+
+    /**
+     * Renders seeded 50-polygon individuals with both backends and compares their MSE against the target.
+     */
+    @Test
+    public void mseMatchesJava2DWithinOnePercent() {
+        int width = target.getWidth();
+        int height = target.getHeight();
+        SplittableRandom random = new SplittableRandom(42);
+        int[] pixels = new int[width * height];
+
+        for (int i = 0; i < INDIVIDUALS; i++) {
+            Individual individual = new Individual(POLYGONS, width, height, random);
+
+            BufferedImage reference = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            ImageUtils.renderInto(individual, reference, null);
+            double expected = ImageUtils.calculateMSE(target, reference);
+
+            ScanlineRasterizer.renderInto(individual, pixels, width, height, null);
+            double actual = ImageUtils.calculateMSE(target, pixels);
+
+            assertEquals("individual " + i, expected, actual, expected * TOLERANCE);
+        }
+    }
+}
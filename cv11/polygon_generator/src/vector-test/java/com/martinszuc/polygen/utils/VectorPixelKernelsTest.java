@@ -0,0 +1,140 @@
+package com.martinszuc.polygen.utils;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the Vector API kernels produce exactly what the scalar kernels do. Lengths and
+ * offsets are chosen so that vector loops, their scalar tails and both together are exercised
+ * whatever the lane count of the CPU.
+ */
+public class VectorPixelKernelsTest {
+    private static final int[] LENGTHS = {0, 1, 3, 7, 8, 15, 16, 17, 31, 33, 63, 64, 65, 127, 129, 1000, 4099};
+    private static final int[] ALPHAS = {0, 1, 127, 128, 254, 255};
+
+    private final PixelKernels scalar = new ScalarPixelKernels();
+    private final PixelKernels vector = new VectorPixelKernels();
+    private final SplittableRandom random = new SplittableRandom(16);
+
+    /**
+     * Compares the squared error over random pixels at several offsets and lengths.
+     */
+    @Test
+    public void squaredErrorMatchesScalar() {
+        for (int length : LENGTHS) {
+            for (int offset : new int[]{0, 5}) {
+                byte[] red = randomBytes(offset + length);
+                byte[] green = randomBytes(offset + length);
+                byte[] blue = randomBytes(offset + length);
+                int[] pixels = randomPixels(offset + length);
+
+                assertEquals("length " + length + ", offset " + offset,
+                        scalar.squaredError(red, green, blue, offset, pixels, offset, length),
+                        vector.squaredError(red, green, blue, offset, pixels, offset, length));
+            }
+        }
+    }
+
+    /**
+     * Compares the squared error read from direct buffers with the scalar kernel over arrays.
+     */
+    @Test
+    public void bufferSquaredErrorMatchesScalar() {
+        for (int length : LENGTHS) {
+            for (int offset : new int[]{0, 5}) {
+                byte[] red = randomBytes(offset + length);
+                byte[] green = randomBytes(offset + length);
+                byte[] blue = randomBytes(offset + length);
+                int[] pixels = randomPixels(offset + length);
+
+                assertEquals("length " + length + ", offset " + offset,
+                        scalar.squaredError(red, green, blue, offset, pixels, offset, length),
+                        vector.squaredError(direct(red), direct(green), direct(blue), offset, pixels, offset, length));
+            }
+        }
+    }
+
+    /**
+     * Compares the squared error where every channel differs as much as possible, so the vector
+     * kernel's int lanes run closest to overflowing.
+     */
+    @Test
+    public void squaredErrorMatchesScalarAtMaximumDifference() {
+        int length = 1 << 16;
+        byte[] channel = new byte[length];
+        int[] pixels = new int[length];
+        Arrays.fill(channel, (byte) 0xFF);
+        Arrays.fill(pixels, 0xFF000000);
+
+        long expected = 3L * 255 * 255 * length;
+        assertEquals(expected, scalar.squaredError(channel, channel, channel, 0, pixels, 0, length));
+        assertEquals(expected, vector.squaredError(channel, channel, channel, 0, pixels, 0, length));
+    }
+
+    /**
+     * Compares blending random colors, including fully transparent and fully opaque ones, over
+     * random spans of random pixels.
+     */
+    @Test
+    public void blendMatchesScalar() {
+        for (int length : LENGTHS) {
+            for (int alpha : ALPHAS) {
+                int from = random.nextInt(8);
+                int[] expected = randomPixels(from + length + 8);
+                int[] actual = expected.clone();
+                int argb = (alpha << 24) | (random.nextInt() & 0xFFFFFF);
+
+                scalar.blend(expected, from, from + length, argb);
+                vector.blend(actual, from, from + length, argb);
+
+                assertArrayEquals("length " + length + ", alpha " + alpha, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Creates random target channel bytes.
+     *
+     * @param length Number of bytes.
+     * @return Random bytes.
+     */
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) random.nextInt(256);
+        }
+        return bytes;
+    }
+
+    /**
+     * Copies bytes into a direct buffer, as native and mapped targets are held.
+     *
+     * @param bytes The bytes to copy.
+     * @return A direct buffer with the same contents.
+     */
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).clear();
+        return buffer;
+    }
+
+    /**
+     * Creates random opaque ARGB pixels, as rendered candidates always are.
+     *
+     * @param length Number of pixels.
+     * @return Random pixels.
+     */
+    private int[] randomPixels(int length) {
+        int[] pixels = new int[length];
+        for (int i = 0; i < length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(1 << 24);
+        }
+        return pixels;
+    }
+}
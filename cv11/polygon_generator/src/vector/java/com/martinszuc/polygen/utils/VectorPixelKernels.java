@@ -0,0 +1,160 @@
+package com.martinszuc.polygen.utils;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pixel kernels on the incubating Vector API, using the widest integer vectors the CPU supports.
+ * Loaded reflectively by {@link PixelKernels}; only compiled with the Maven profile {@code vector}.
+ */
+final class VectorPixelKernels extends PixelKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // Target bytes widen to ints, so a byte vector covers one or more int vectors' worth of pixels
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(Math.max(64, INTS.vectorBitSize() / 4)));
+    private static final int PARTS = BYTES.length() / INTS.length();
+    // Byte blocks after which the int lanes are summed into a long; until then even all lanes together fit an int
+    private static final int FLUSH_BLOCKS = Math.max(1, Integer.MAX_VALUE / (3 * 255 * 255) / BYTES.length());
+
+    @Override
+    long squaredError(byte[] red, byte[] green, byte[] blue, int targetOffset,
+                      int[] pixels, int pixelOffset, int length) {
+        long error = 0;
+        int i = 0;
+        int upper = BYTES.loopBound(length);
+        while (i < upper) {
+            IntVector sum = IntVector.zero(INTS);
+            int flushAt = Math.min(upper, i + FLUSH_BLOCKS * BYTES.length());
+            for (; i < flushAt; i += BYTES.length()) {
+                ByteVector r = ByteVector.fromArray(BYTES, red, targetOffset + i);
+                ByteVector g = ByteVector.fromArray(BYTES, green, targetOffset + i);
+                ByteVector b = ByteVector.fromArray(BYTES, blue, targetOffset + i);
+                sum = accumulate(sum, r, g, b, pixels, pixelOffset + i);
+            }
+            error += sum.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < length; i++) {
+            int rgb = pixels[pixelOffset + i];
+            int t = targetOffset + i;
+
+            int dr = (red[t] & 0xFF) - ((rgb >> 16) & 0xFF);
+            int dg = (green[t] & 0xFF) - ((rgb >> 8) & 0xFF);
+            int db = (blue[t] & 0xFF) - (rgb & 0xFF);
+
+            error += dr * dr + dg * dg + db * db;
+        }
+        return error;
+    }
+
+    @Override
+    long squaredError(ByteBuffer red, ByteBuffer green, ByteBuffer blue, int targetOffset,
+                      int[] pixels, int pixelOffset, int length) {
+        ByteOrder order = ByteOrder.nativeOrder();
+        long error = 0;
+        int i = 0;
+        int upper = BYTES.loopBound(length);
+        while (i < upper) {
+            IntVector sum = IntVector.zero(INTS);
+            int flushAt = Math.min(upper, i + FLUSH_BLOCKS * BYTES.length());
+            for (; i < flushAt; i += BYTES.length()) {
+                ByteVector r = ByteVector.fromByteBuffer(BYTES, red, targetOffset + i, order);
+                ByteVector g = ByteVector.fromByteBuffer(BYTES, green, targetOffset + i, order);
+                ByteVector b = ByteVector.fromByteBuffer(BYTES, blue, targetOffset + i, order);
+                sum = accumulate(sum, r, g, b, pixels, pixelOffset + i);
+            }
+            error += sum.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < length; i++) {
+            int rgb = pixels[pixelOffset + i];
+            int t = targetOffset + i;
+
+            int dr = (red.get(t) & 0xFF) - ((rgb >> 16) & 0xFF);
+            int dg = (green.get(t) & 0xFF) - ((rgb >> 8) & 0xFF);
+            int db = (blue.get(t) & 0xFF) - (rgb & 0xFF);
+
+            error += dr * dr + dg * dg + db * db;
+        }
+        return error;
+    }
+
+    @Override
+    void blend(int[] pixels, int from, int to, int argb) {
+        int alpha = argb >>> 24;
+        int inverseAlpha = 255 - alpha;
+        int srcR = ((argb >> 16) & 0xFF) * alpha + 127;
+        int srcG = ((argb >> 8) & 0xFF) * alpha + 127;
+        int srcB = (argb & 0xFF) * alpha + 127;
+
+        int x = from;
+        int upper = from + INTS.loopBound(to - from);
+        for (; x < upper; x += INTS.length()) {
+            IntVector dst = IntVector.fromArray(INTS, pixels, x);
+            IntVector r = divide255(dst.lanewise(VectorOperators.LSHR, 16).and(0xFF).mul(inverseAlpha).add(srcR));
+            IntVector g = divide255(dst.lanewise(VectorOperators.LSHR, 8).and(0xFF).mul(inverseAlpha).add(srcG));
+            IntVector b = divide255(dst.and(0xFF).mul(inverseAlpha).add(srcB));
+            r.lanewise(VectorOperators.LSHL, 16)
+                    .or(g.lanewise(VectorOperators.LSHL, 8))
+                    .or(b)
+                    .or(0xFF000000)
+                    .intoArray(pixels, x);
+        }
+        for (; x < to; x++) {
+            int dst = pixels[x];
+            int r = (srcR + ((dst >> 16) & 0xFF) * inverseAlpha) / 255;
+            int g = (srcG + ((dst >> 8) & 0xFF) * inverseAlpha) / 255;
+            int b = (srcB + (dst & 0xFF) * inverseAlpha) / 255;
+            pixels[x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    /**
+     * Adds the squared error of one byte vector's worth of pixels to the running int lanes.
+     *
+     * @param sum         Running sums.
+     * @param red         Target red samples.
+     * @param green       Target green samples.
+     * @param blue        Target blue samples.
+     * @param pixels      Candidate ARGB pixels.
+     * @param pixelOffset Index of the candidate pixel matching the first lane.
+     * @return The updated sums.
+     */
+    private static IntVector accumulate(IntVector sum, ByteVector red, ByteVector green, ByteVector blue,
+                                        int[] pixels, int pixelOffset) {
+        for (int part = 0; part < PARTS; part++) {
+            IntVector rgb = IntVector.fromArray(INTS, pixels, pixelOffset + part * INTS.length());
+            IntVector dr = widen(red, part).sub(rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF));
+            IntVector dg = widen(green, part).sub(rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF));
+            IntVector db = widen(blue, part).sub(rgb.and(0xFF));
+            sum = sum.add(dr.mul(dr)).add(dg.mul(dg)).add(db.mul(db));
+        }
+        return sum;
+    }
+
+    /**
+     * Widens one int vector's worth of unsigned bytes.
+     *
+     * @param bytes Byte lanes.
+     * @param part  Which int vector's worth of lanes to take.
+     * @return Lanes zero-extended to int.
+     */
+    private static IntVector widen(ByteVector bytes, int part) {
+        return ((IntVector) bytes.convertShape(VectorOperators.B2I, INTS, part)).and(0xFF);
+    }
+
+    /**
+     * Integer division by 255 without a divide instruction. Exact for every blend sum, which
+     * never exceeds {@code 255 * 255 + 127}.
+     *
+     * @param value Lanes between 0 and 65152.
+     * @return Lanes divided by 255, rounded down.
+     */
+    private static IntVector divide255(IntVector value) {
+        return value.add(value.lanewise(VectorOperators.LSHR, 8)).add(1).lanewise(VectorOperators.LSHR, 8);
+    }
+}